@@ -0,0 +1,6 @@
+package com.example.onlinebookstore.bookimport;
+
+public enum BookImportFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,13 @@
+package com.example.onlinebookstore.bookimport;
+
+import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+
+public record BookImportRow(int line, CreateBookRequestDto book, String error) {
+    public static BookImportRow valid(int line, CreateBookRequestDto book) {
+        return new BookImportRow(line, book, null);
+    }
+
+    public static BookImportRow rejected(int line, String error) {
+        return new BookImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.onlinebookstore.bookimport;
+
+import java.io.IOException;
+
+public interface BookRowReader {
+    BookImportRow next() throws IOException;
+}
@@ -0,0 +1,174 @@
+package com.example.onlinebookstore.bookimport;
+
+import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.example.onlinebookstore.exception.InvalidImportFileException;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+public class CsvBookRowReader implements BookRowReader {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final int NONE = -2;
+    private static final String CATEGORY_SEPARATOR = ";";
+    private static final String TITLE = "title";
+    private static final String ISBN = "isbn";
+    private static final String PRICE = "price";
+    private static final String DESCRIPTION = "description";
+    private static final String COVER_IMAGE = "coverimage";
+    private static final String CATEGORY_IDS = "categoryids";
+    private static final List<String> REQUIRED_COLUMNS = List.of(TITLE, ISBN, PRICE);
+    private final Reader reader;
+    private Map<String, Integer> columns;
+    private int line = 1;
+    private String recordError;
+    private int lookahead = NONE;
+
+    public CsvBookRowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        int recordLine;
+        List<String> fields;
+        do {
+            recordLine = line;
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+        if (recordError != null) {
+            return BookImportRow.rejected(recordLine, recordError);
+        }
+        if (fields.size() != columns.size()) {
+            return BookImportRow.rejected(recordLine, "Expected " + columns.size()
+                    + " columns but found " + fields.size());
+        }
+        try {
+            return BookImportRow.valid(recordLine, toBook(fields));
+        } catch (NumberFormatException e) {
+            return BookImportRow.rejected(recordLine, e.getMessage());
+        }
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null || recordError != null) {
+            throw new InvalidImportFileException("CSV import requires a header row");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(REQUIRED_COLUMNS)) {
+            throw new InvalidImportFileException("CSV header must contain columns "
+                    + REQUIRED_COLUMNS + " but was " + header);
+        }
+    }
+
+    private CreateBookRequestDto toBook(List<String> fields) {
+        CreateBookRequestDto book = new CreateBookRequestDto();
+        book.setTitle(field(fields, TITLE));
+        book.setIsbn(field(fields, ISBN));
+        book.setPrice(number(PRICE, field(fields, PRICE), BigDecimal::new));
+        book.setDescription(field(fields, DESCRIPTION));
+        book.setCoverImage(field(fields, COVER_IMAGE));
+        String categoryIds = field(fields, CATEGORY_IDS);
+        if (categoryIds != null) {
+            book.setCategoryIds(Arrays.stream(categoryIds.split(CATEGORY_SEPARATOR))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .map(id -> number(CATEGORY_IDS, id, Long::valueOf))
+                    .toList());
+        }
+        return book;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T number(String column, String value, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(column + " is not a number: " + value);
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        recordError = null;
+        int next = read();
+        if (next == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (; next != -1; next = read()) {
+            char current = (char) next;
+            if (quoted) {
+                if (current != QUOTE) {
+                    line += current == '\n' ? 1 : 0;
+                    field.append(current);
+                } else if (peek() == QUOTE) {
+                    field.append((char) read());
+                } else {
+                    quoted = false;
+                }
+            } else if (current == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else if (current == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (current == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (current != '\r') {
+                field.append(current);
+            }
+        }
+        if (quoted) {
+            recordError = "Unterminated quoted field";
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (lookahead != NONE) {
+            int next = lookahead;
+            lookahead = NONE;
+            return next;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (lookahead == NONE) {
+            lookahead = reader.read();
+        }
+        return lookahead;
+    }
+}
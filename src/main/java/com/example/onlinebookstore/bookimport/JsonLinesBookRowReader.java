@@ -0,0 +1,35 @@
+package com.example.onlinebookstore.bookimport;
+
+import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public class JsonLinesBookRowReader implements BookRowReader {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private int line;
+
+    public JsonLinesBookRowReader(BufferedReader reader, ObjectReader objectReader) {
+        this.reader = reader;
+        this.objectReader = objectReader.forType(CreateBookRequestDto.class);
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        String json;
+        do {
+            json = reader.readLine();
+            line++;
+        } while (json != null && json.isBlank());
+        if (json == null) {
+            return null;
+        }
+        try {
+            return BookImportRow.valid(line, objectReader.readValue(json));
+        } catch (JsonProcessingException e) {
+            return BookImportRow.rejected(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.onlinebookstore.cart;
+
+import java.math.BigDecimal;
+
+public record CartBook(String title, BigDecimal price) {
+}
@@ -0,0 +1,7 @@
+package com.example.onlinebookstore.cart;
+
+import java.math.BigDecimal;
+
+public record CartItemRow(Long id, long bookId, String bookTitle, int quantity,
+                          BigDecimal price) {
+}
@@ -0,0 +1,39 @@
+package com.example.onlinebookstore.cart;
+
+public record CartMutation(Type type, long shoppingCartId, long bookId, int quantity) {
+    private static final String SEPARATOR = ",";
+
+    public static CartMutation add(long shoppingCartId, long bookId, int quantity) {
+        return new CartMutation(Type.ADD, shoppingCartId, bookId, quantity);
+    }
+
+    public static CartMutation set(long shoppingCartId, long bookId, int quantity) {
+        return new CartMutation(Type.SET, shoppingCartId, bookId, quantity);
+    }
+
+    public static CartMutation remove(long shoppingCartId, long bookId) {
+        return new CartMutation(Type.REMOVE, shoppingCartId, bookId, 0);
+    }
+
+    public static CartMutation clear(long shoppingCartId) {
+        return new CartMutation(Type.CLEAR, shoppingCartId, 0, 0);
+    }
+
+    static CartMutation parse(String line) {
+        String[] parts = line.split(SEPARATOR);
+        return new CartMutation(Type.valueOf(parts[0]), Long.parseLong(parts[1]),
+                Long.parseLong(parts[2]), Integer.parseInt(parts[3]));
+    }
+
+    String format() {
+        return String.join(SEPARATOR, type.name(), String.valueOf(shoppingCartId),
+                String.valueOf(bookId), String.valueOf(quantity));
+    }
+
+    public enum Type {
+        ADD,
+        SET,
+        REMOVE,
+        CLEAR
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.onlinebookstore.cart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+final class CartWriteAheadLog implements AutoCloseable {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("cart-(\\d{10})\\.log");
+    private final Path directory;
+    private final Object bufferLock = new Object();
+    private final Object syncLock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSequence;
+    private volatile long syncedSequence;
+    private long segment;
+    private FileChannel channel;
+
+    CartWriteAheadLog(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create the cart log directory " + directory, e);
+        }
+        this.segment = segments().stream()
+                .mapToLong(CartWriteAheadLog::segmentNumber)
+                .max()
+                .orElse(0);
+    }
+
+    long append(CartMutation mutation) {
+        byte[] record = (mutation.format() + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (bufferLock) {
+            pending.writeBytes(record);
+            return ++appendedSequence;
+        }
+    }
+
+    void sync(long sequence) {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSequence < sequence) {
+                writePending();
+            }
+        }
+    }
+
+    long seal() {
+        synchronized (syncLock) {
+            writePending();
+            closeChannel();
+            return segment;
+        }
+    }
+
+    List<CartMutation> read(long lastSegment) {
+        List<CartMutation> mutations = new ArrayList<>();
+        for (Path path : segments()) {
+            if (segmentNumber(path) > lastSegment) {
+                continue;
+            }
+            try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
+                lines.forEach(line -> {
+                    try {
+                        mutations.add(CartMutation.parse(line));
+                    } catch (RuntimeException e) {
+                        log.warn("Skipping a torn cart log record in {}: {}", path, line);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't read the cart log " + path, e);
+            }
+        }
+        return mutations;
+    }
+
+    void deleteThrough(long lastSegment) {
+        for (Path path : segments()) {
+            if (segmentNumber(path) <= lastSegment) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Can't delete the flushed cart log {}", path, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        seal();
+    }
+
+    private void writePending() {
+        byte[] batch;
+        long batchSequence;
+        synchronized (bufferLock) {
+            if (appendedSequence == syncedSequence) {
+                return;
+            }
+            batch = pending.toByteArray();
+            batchSequence = appendedSequence;
+            pending = new ByteArrayOutputStream();
+        }
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(segmentPath(segment + 1), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                segment++;
+            }
+            ByteBuffer records = ByteBuffer.wrap(batch);
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            closeChannel();
+            synchronized (bufferLock) {
+                ByteArrayOutputStream restored = new ByteArrayOutputStream();
+                restored.writeBytes(batch);
+                restored.writeBytes(pending.toByteArray());
+                pending = restored;
+            }
+            throw new UncheckedIOException("Can't append to the cart log", e);
+        }
+        syncedSequence = batchSequence;
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Can't close the cart log", e);
+        }
+        channel = null;
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString())
+                            .matches())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't list the cart log directory " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("cart-%010d.log", number));
+    }
+
+    private static long segmentNumber(Path path) {
+        Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,433 @@
+package com.example.onlinebookstore.cart;
+
+import com.example.onlinebookstore.dto.cart.CartBatchResponseDto;
+import com.example.onlinebookstore.dto.cart.CartOperationDto;
+import com.example.onlinebookstore.dto.cart.CartOperationErrorDto;
+import com.example.onlinebookstore.dto.cart.CartResponseDto;
+import com.example.onlinebookstore.dto.cart.CartSummaryDto;
+import com.example.onlinebookstore.dto.cartitem.CartItemDto;
+import com.example.onlinebookstore.exception.BatchTooLargeException;
+import com.example.onlinebookstore.exception.EntityNotFoundException;
+import com.example.onlinebookstore.repository.CartItemBatchRepository;
+import com.example.onlinebookstore.repository.ShoppingCartRepository;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements SmartInitializingSingleton {
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private final CartItemBatchRepository cartItemBatchRepository;
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartWriteAheadLog writeAheadLog;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration idleTimeout;
+    private final ConcurrentMap<Long, CartState> carts = new ConcurrentHashMap<>();
+
+    public WriteBehindCartStore(CartItemBatchRepository cartItemBatchRepository,
+                                ShoppingCartRepository shoppingCartRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${cart.write-behind.log-directory}") Path logDirectory,
+                                @Value("${cart.write-behind.idle-timeout}") Duration idleTimeout) {
+        this.cartItemBatchRepository = cartItemBatchRepository;
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.writeAheadLog = new CartWriteAheadLog(logDirectory);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        recover();
+    }
+
+    public synchronized void recover() {
+        long lastSegment = writeAheadLog.seal();
+        Map<Long, Map<Long, CartMutation>> pending = new LinkedHashMap<>();
+        for (CartMutation mutation : writeAheadLog.read(lastSegment)) {
+            if (mutation.type() == CartMutation.Type.CLEAR) {
+                pending.remove(mutation.shoppingCartId());
+            } else {
+                pending.computeIfAbsent(mutation.shoppingCartId(), id -> new LinkedHashMap<>())
+                        .put(mutation.bookId(), mutation);
+            }
+        }
+        List<CartMutation> mutations = pending.values().stream()
+                .flatMap(cartMutations -> cartMutations.values().stream())
+                .toList();
+        if (!mutations.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                cartItemBatchRepository.writeAll(mutations, FLUSH_BATCH_SIZE);
+                shoppingCartRepository.recalculateTotals(pending.keySet());
+            });
+            log.info("Recovered {} cart changes from the write-ahead log", mutations.size());
+        }
+        writeAheadLog.deleteThrough(lastSegment);
+    }
+
+    public CartResponseDto getCart(Long userId) {
+        return withCart(userId, this::toDto);
+    }
+
+    public CartResponseDto addBook(Long userId, Long bookId, int quantity) {
+        return withCart(userId, cart -> {
+            addToCart(cart, bookId, quantity);
+            return toDto(cart);
+        });
+    }
+
+    public CartItemDto updateQuantity(Long userId, Long itemId, int quantity) {
+        return withCart(userId, cart -> toDto(setQuantity(cart, itemId, quantity)));
+    }
+
+    public void remove(Long userId, Long itemId) {
+        withCart(userId, cart -> {
+            removeItem(cart, itemId);
+            return null;
+        });
+    }
+
+    public CartBatchResponseDto apply(Long userId, List<CartOperationDto> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("Can't apply more than " + MAX_BATCH_SIZE
+                    + " cart operations at once");
+        }
+        return withCart(userId, cart -> {
+            List<CartOperationErrorDto> errors = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                CartOperationDto operation = operations.get(i);
+                try {
+                    switch (operation.getType()) {
+                        case ADD -> addToCart(cart, operation.getBookId(), operation.getQuantity());
+                        case UPDATE -> setQuantity(cart, operation.getCartItemId(),
+                                operation.getQuantity());
+                        case REMOVE -> removeItem(cart, operation.getCartItemId());
+                        default -> throw new IllegalStateException(
+                                "Unknown operation " + operation.getType());
+                    }
+                } catch (EntityNotFoundException e) {
+                    errors.add(new CartOperationErrorDto(i, e.getMessage()));
+                }
+            }
+            return new CartBatchResponseDto(toDto(cart), errors);
+        });
+    }
+
+    public CartSummaryDto getSummary(Long userId) {
+        CartState cart = carts.get(userId);
+        if (cart != null) {
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    return new CartSummaryDto(cart.shoppingCartId, cart.itemCount, cart.total);
+                }
+            }
+        }
+        return shoppingCartRepository.findSummaryByUserId(userId).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a shopping cart of the user id "
+                        + userId));
+    }
+
+    public void repriceBook(Long bookId) {
+        cartItemBatchRepository.findBook(bookId).ifPresent(book -> {
+            for (CartState cart : carts.values()) {
+                synchronized (cart) {
+                    CartItemState item = cart.items.get(bookId);
+                    if (item != null) {
+                        cart.total = cart.total.add(book.price().subtract(item.price)
+                                .multiply(BigDecimal.valueOf(item.quantity)));
+                        item.price = book.price();
+                    }
+                }
+            }
+        });
+        List<Long> shoppingCartIds;
+        Long lastId = 0L;
+        do {
+            shoppingCartIds = shoppingCartRepository.findIdsByBookId(bookId, lastId,
+                    FLUSH_BATCH_SIZE);
+            if (!shoppingCartIds.isEmpty()) {
+                List<Long> batch = shoppingCartIds;
+                transactionTemplate.executeWithoutResult(status ->
+                        shoppingCartRepository.recalculateTotals(batch));
+                lastId = shoppingCartIds.get(shoppingCartIds.size() - 1);
+            }
+        } while (shoppingCartIds.size() == FLUSH_BATCH_SIZE);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval}",
+            initialDelayString = "${cart.write-behind.flush-interval}")
+    public synchronized void flush() {
+        long sealedSegment = writeAheadLog.seal();
+        long idleSince = System.nanoTime() - idleTimeout.toNanos();
+        Map<CartState, List<CartMutation>> drained = new HashMap<>();
+        for (Map.Entry<Long, CartState> entry : carts.entrySet()) {
+            CartState cart = entry.getValue();
+            synchronized (cart) {
+                if (!cart.dirtyBookIds.isEmpty()) {
+                    drained.put(cart, cart.drain());
+                } else if (cart.lastAccess - idleSince < 0) {
+                    cart.evicted = true;
+                    carts.remove(entry.getKey(), cart);
+                }
+            }
+        }
+        try {
+            write(drained);
+            writeAheadLog.deleteThrough(sealedSegment);
+        } catch (DataAccessException e) {
+            log.warn("Can't flush cart changes of {} carts, retrying on the next flush",
+                    drained.size(), e);
+            drained.forEach(this::markDirty);
+        }
+    }
+
+    public synchronized void flushAndEvict(Long userId) {
+        CartState cart = carts.get(userId);
+        if (cart == null) {
+            shoppingCartRepository.findIdByUserId(userId).ifPresent(shoppingCartId ->
+                    writeAheadLog.sync(writeAheadLog.append(CartMutation.clear(shoppingCartId))));
+            return;
+        }
+        synchronized (cart) {
+            List<CartMutation> mutations = cart.drain();
+            try {
+                write(Map.of(cart, mutations));
+            } catch (DataAccessException e) {
+                markDirty(cart, mutations);
+                throw e;
+            }
+            cart.evicted = true;
+            carts.remove(userId, cart);
+            writeAheadLog.sync(writeAheadLog.append(CartMutation.clear(cart.shoppingCartId)));
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void close() {
+        flush();
+        writeAheadLog.close();
+    }
+
+    private <T> T withCart(Long userId, Function<CartState, T> action) {
+        while (true) {
+            CartState cart = carts.get(userId);
+            if (cart == null) {
+                CartState loaded = load(userId);
+                cart = carts.putIfAbsent(userId, loaded);
+                if (cart == null) {
+                    cart = loaded;
+                }
+            }
+            try {
+                synchronized (cart) {
+                    if (!cart.evicted) {
+                        cart.lastAccess = System.nanoTime();
+                        return action.apply(cart);
+                    }
+                }
+            } finally {
+                writeAheadLog.sync(cart.loggedSequence);
+            }
+        }
+    }
+
+    private void addToCart(CartState cart, Long bookId, int quantity) {
+        CartItemState item = bookId == null ? null : cart.items.get(bookId);
+        if (item == null) {
+            CartBook book = Optional.ofNullable(bookId)
+                    .flatMap(cartItemBatchRepository::findBook)
+                    .orElseThrow(() -> new EntityNotFoundException("Cannot find a book by id "
+                            + bookId));
+            item = new CartItemState(null, bookId, book.title(), book.price(), 0);
+        }
+        record(cart, CartMutation.set(cart.shoppingCartId, bookId, item.quantity + quantity));
+        cart.changeQuantity(item, item.quantity + quantity);
+        cart.items.putIfAbsent(bookId, item);
+    }
+
+    private CartItemState setQuantity(CartState cart, Long itemId, int quantity) {
+        CartItemState item = findItem(cart, itemId);
+        record(cart, CartMutation.set(cart.shoppingCartId, item.bookId, quantity));
+        cart.changeQuantity(item, quantity);
+        return item;
+    }
+
+    private void removeItem(CartState cart, Long itemId) {
+        CartItemState item = findItem(cart, itemId);
+        record(cart, CartMutation.remove(cart.shoppingCartId, item.bookId));
+        cart.changeQuantity(item, 0);
+        cart.items.remove(item.bookId);
+        if (item.id != null) {
+            cart.bookIdsByItemId.remove(item.id);
+        }
+    }
+
+    private CartState load(Long userId) {
+        Long shoppingCartId = shoppingCartRepository.findIdByUserId(userId).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a shopping cart of the user id "
+                        + userId));
+        CartState cart = new CartState(userId, shoppingCartId);
+        for (CartItemRow row : cartItemBatchRepository.findItems(shoppingCartId)) {
+            CartItemState item = new CartItemState(row.id(), row.bookId(), row.bookTitle(),
+                    row.price(), 0);
+            cart.changeQuantity(item, row.quantity());
+            cart.items.put(row.bookId(), item);
+            cart.bookIdsByItemId.put(row.id(), row.bookId());
+        }
+        return cart;
+    }
+
+    private void record(CartState cart, CartMutation mutation) {
+        cart.loggedSequence = writeAheadLog.append(mutation);
+        cart.dirtyBookIds.add(mutation.bookId());
+    }
+
+    private void write(Map<CartState, List<CartMutation>> drained) {
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<Long> shoppingCartIds = drained.keySet().stream()
+                .map(cart -> cart.shoppingCartId)
+                .toList();
+        Map<Long, Map<Long, Long>> itemIds = transactionTemplate.execute(status -> {
+            cartItemBatchRepository.writeAll(drained.values().stream()
+                    .flatMap(Collection::stream)
+                    .toList(), FLUSH_BATCH_SIZE);
+            shoppingCartRepository.recalculateTotals(shoppingCartIds);
+            return cartItemBatchRepository.findItemIds(shoppingCartIds);
+        });
+        for (CartState cart : drained.keySet()) {
+            synchronized (cart) {
+                Map<Long, Long> cartItemIds = itemIds.getOrDefault(cart.shoppingCartId, Map.of());
+                cart.items.values().forEach(item -> {
+                    if (item.id == null) {
+                        item.id = cartItemIds.get(item.bookId);
+                        if (item.id != null) {
+                            cart.bookIdsByItemId.put(item.id, item.bookId);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private void markDirty(CartState cart, List<CartMutation> mutations) {
+        synchronized (cart) {
+            mutations.forEach(mutation -> cart.dirtyBookIds.add(mutation.bookId()));
+        }
+    }
+
+    private CartItemState findItem(CartState cart, Long itemId) {
+        Long bookId = itemId == null ? null
+                : itemId < 0 ? Long.valueOf(-itemId) : cart.bookIdsByItemId.get(itemId);
+        CartItemState item = bookId == null ? null : cart.items.get(bookId);
+        if (item == null) {
+            throw new EntityNotFoundException("You don't have an order with id " + itemId);
+        }
+        return item;
+    }
+
+    private CartResponseDto toDto(CartState cart) {
+        CartResponseDto cartDto = new CartResponseDto();
+        cartDto.setId(cart.shoppingCartId);
+        cartDto.setUserId(cart.userId);
+        cartDto.setCartItems(cart.items.values().stream()
+                .map(this::toDto)
+                .toList());
+        cartDto.setItemCount(cart.itemCount);
+        cartDto.setTotal(cart.total);
+        return cartDto;
+    }
+
+    private CartItemDto toDto(CartItemState item) {
+        CartItemDto itemDto = new CartItemDto();
+        itemDto.setId(item.id == null ? -item.bookId : item.id);
+        itemDto.setBookId(item.bookId);
+        itemDto.setBookTitle(item.bookTitle);
+        itemDto.setQuantity(item.quantity);
+        return itemDto;
+    }
+
+    private static final class CartState {
+        private final Long userId;
+        private final Long shoppingCartId;
+        private final Map<Long, CartItemState> items = new LinkedHashMap<>();
+        private final Map<Long, Long> bookIdsByItemId = new HashMap<>();
+        private final Set<Long> dirtyBookIds = new LinkedHashSet<>();
+        private long lastAccess = System.nanoTime();
+        private volatile long loggedSequence;
+        private boolean evicted;
+        private int itemCount;
+        private BigDecimal total = BigDecimal.ZERO;
+
+        private CartState(Long userId, Long shoppingCartId) {
+            this.userId = userId;
+            this.shoppingCartId = shoppingCartId;
+        }
+
+        private void changeQuantity(CartItemState item, int quantity) {
+            int delta = quantity - item.quantity;
+            itemCount += delta;
+            total = total.add(item.price.multiply(BigDecimal.valueOf(delta)));
+            item.quantity = quantity;
+        }
+
+        private List<CartMutation> drain() {
+            List<CartMutation> mutations = new ArrayList<>(dirtyBookIds.size());
+            for (Long bookId : dirtyBookIds) {
+                CartItemState item = items.get(bookId);
+                mutations.add(item == null
+                        ? CartMutation.remove(shoppingCartId, bookId)
+                        : CartMutation.set(shoppingCartId, bookId, item.quantity));
+            }
+            dirtyBookIds.clear();
+            return mutations;
+        }
+    }
+
+    private static final class CartItemState {
+        private Long id;
+        private final long bookId;
+        private final String bookTitle;
+        private BigDecimal price;
+        private int quantity;
+
+        private CartItemState(Long id, long bookId, String bookTitle, BigDecimal price,
+                              int quantity) {
+            this.id = id;
+            this.bookId = bookId;
+            this.bookTitle = bookTitle;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.onlinebookstore.compaction;
+
+import com.example.onlinebookstore.repository.TombstoneRepository;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class TombstoneCompactor {
+    private final TombstoneRepository tombstoneRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public TombstoneCompactor(TombstoneRepository tombstoneRepository,
+                              @Value("${tombstone-compaction.retention}") Duration retention,
+                              @Value("${tombstone-compaction.batch-size}") int batchSize,
+                              @Value("${tombstone-compaction.batch-pause}") Duration batchPause) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(fixedDelayString = "${tombstone-compaction.interval}",
+            initialDelayString = "${tombstone-compaction.interval}")
+    public Map<TombstoneTable, Integer> compact() {
+        Map<TombstoneTable, Integer> reclaimed = new EnumMap<>(TombstoneTable.class);
+        try {
+            for (TombstoneTable table : TombstoneTable.values()) {
+                reclaimed.put(table, compact(table));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int total = reclaimed.values().stream().mapToInt(Integer::intValue).sum();
+        if (total > 0) {
+            log.info("Tombstone compaction reclaimed {} rows: {}", total, reclaimed);
+        }
+        return reclaimed;
+    }
+
+    private int compact(TombstoneTable table) throws InterruptedException {
+        int reclaimed = 0;
+        while (true) {
+            List<Long> ids = tombstoneRepository.findExpiredIds(table, retention, batchSize);
+            int deleted = ids.isEmpty() ? 0 : tombstoneRepository.delete(table, ids);
+            reclaimed += deleted;
+            if (ids.size() < batchSize || deleted == 0) {
+                return reclaimed;
+            }
+            Thread.sleep(batchPause.toMillis());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.onlinebookstore.compaction;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum TombstoneTable {
+    CART_ITEMS("cart_items", null, null),
+    ORDER_ITEMS("order_items", null, null),
+    ORDERS("orders", "order_items", "order_id");
+
+    private final String tableName;
+    private final String referencingTable;
+    private final String referencingColumn;
+}
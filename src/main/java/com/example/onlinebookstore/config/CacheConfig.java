@@ -0,0 +1,41 @@
+package com.example.onlinebookstore.config;
+
+import com.example.onlinebookstore.web.CachedResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String BOOKS_CACHE = "books";
+    public static final String RESPONSES_CACHE = "responses";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.books.maximum-size}") long booksMaximumSize,
+            @Value("${cache.books.expire-after-write}") Duration booksExpireAfterWrite,
+            @Value("${cache.responses.maximum-weight}") DataSize responsesMaximumWeight,
+            @Value("${cache.responses.expire-after-write}") Duration responsesExpireAfterWrite
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(BOOKS_CACHE, Caffeine.newBuilder()
+                .maximumSize(booksMaximumSize)
+                .expireAfterWrite(booksExpireAfterWrite)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(RESPONSES_CACHE, Caffeine.newBuilder()
+                .maximumWeight(responsesMaximumWeight.toBytes())
+                .weigher((key, value) -> ((CachedResponse) value).weight())
+                .expireAfterWrite(responsesExpireAfterWrite)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -35,6 +35,10 @@ public class SecurityConfig {
                         auth -> auth
                                 .requestMatchers("api/auth/**", "/swagger-ui/**")
                                 .permitAll()
+                                .requestMatchers("/actuator/health")
+                                .authenticated()
+                                .requestMatchers("/actuator/**")
+                                .hasAuthority("ADMIN")
                                 .anyRequest()
                                 .authenticated()
                 )
@@ -1,16 +1,40 @@
 package com.example.onlinebookstore.controller;
 
+import com.example.onlinebookstore.bookimport.BookImportFormat;
+import com.example.onlinebookstore.cover.CoverImage;
 import com.example.onlinebookstore.dto.book.BookDto;
+import com.example.onlinebookstore.dto.book.BookIdsRequestDto;
+import com.example.onlinebookstore.dto.book.BookImportReportDto;
 import com.example.onlinebookstore.dto.book.BookSearchParametersDto;
+import com.example.onlinebookstore.dto.book.BookSuggestionDto;
 import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.example.onlinebookstore.dto.page.CursorPageDto;
+import com.example.onlinebookstore.dto.page.CursorPageRequestDto;
+import com.example.onlinebookstore.ranking.RankingType;
+import com.example.onlinebookstore.service.BookCoverService;
+import com.example.onlinebookstore.service.BookExportService;
+import com.example.onlinebookstore.service.BookImportService;
+import com.example.onlinebookstore.service.BookRankingService;
 import com.example.onlinebookstore.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,29 +42,113 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
-@RequiredArgsConstructor
 @RequestMapping(value = "/api/books")
 @Tag(name = "Books management", description = "End points for CRUD operations with books")
 public class BookController {
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookExportService bookExportService;
+    private final BookCoverService bookCoverService;
+    private final BookRankingService bookRankingService;
+    private final Duration coverMaxAge;
+
+    public BookController(BookService bookService,
+                          BookImportService bookImportService,
+                          BookExportService bookExportService,
+                          BookCoverService bookCoverService,
+                          BookRankingService bookRankingService,
+                          @Value("${book.covers.max-age}") Duration coverMaxAge) {
+        this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.bookExportService = bookExportService;
+        this.bookCoverService = bookCoverService;
+        this.bookRankingService = bookRankingService;
+        this.coverMaxAge = coverMaxAge;
+    }
 
     @GetMapping
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Find all books", description = "Books will be provided by pages")
-    public List<BookDto> getAll(Pageable pageable) {
-        return bookService.findAll(pageable);
+    public ResponseEntity<List<BookDto>> getAll(Pageable pageable, WebRequest webRequest) {
+        String versionTag = bookService.getVersionTag(pageable);
+        if (webRequest.checkNotModified(versionTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(versionTag).body(bookService.findAll(pageable));
+    }
+
+    @GetMapping(params = "after")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Find all books with a cursor",
+            description = "Keyset pagination. Pass an empty 'after' for the first page "
+                    + "and 'nextCursor' of the previous page afterwards")
+    public CursorPageDto<BookDto> getAllByCursor(CursorPageRequestDto cursorRequest) {
+        return bookService.findAll(cursorRequest);
+    }
+
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Find books by ids",
+            description = "Finds all books with the provided ids in one call, "
+                    + "in the requested order. Unknown ids are skipped")
+    public List<BookDto> getAllByIds(@RequestParam List<Long> ids) {
+        return bookService.findAllById(ids);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Find books by a long list of ids",
+            description = "Same as finding books by ids, with the ids in the request body")
+    public List<BookDto> getAllByIds(@RequestBody @Valid BookIdsRequestDto requestDto) {
+        return bookService.findAllById(requestDto.getIds());
+    }
+
+    @GetMapping("/bestsellers")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Find bestsellers",
+            description = "Books ranked by recently sold copies, recent sales weigh more")
+    public List<BookDto> getBestsellers(@RequestParam(required = false) Integer limit) {
+        return bookRankingService.getTopBooks(RankingType.BESTSELLERS, limit);
+    }
+
+    @GetMapping("/trending")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Find trending books",
+            description = "Books ranked by recent views, recent views weigh more")
+    public List<BookDto> getTrending(@RequestParam(required = false) Integer limit) {
+        return bookRankingService.getTopBooks(RankingType.TRENDING, limit);
+    }
+
+    @GetMapping("/typeahead")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Complete book titles",
+            description = "Suggests titles with a word starting with the prefix, "
+                    + "popular books first")
+    public List<BookSuggestionDto> suggestTitles(@RequestParam String prefix,
+                                                 @RequestParam(required = false) Integer limit) {
+        return bookService.suggestTitles(prefix, limit);
     }
 
     @GetMapping(value = "/{id}")
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Find book by id", description = "Finds a book with provided id")
-    public BookDto getBookById(@PathVariable Long id) {
-        return bookService.getById(id);
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        String versionTag = bookService.getVersionTag(id);
+        if (webRequest.checkNotModified(versionTag)) {
+            bookService.recordView(id);
+            return null;
+        }
+        return ResponseEntity.ok().eTag(versionTag).body(bookService.getById(id));
     }
 
     @PostMapping
@@ -51,6 +159,38 @@ public class BookController {
         return bookService.save(bookDto);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Import books from CSV",
+            description = "Streams a CSV file with a header row (title, isbn, price, "
+                    + "description, coverImage, categoryIds separated by ';'). "
+                    + "Valid rows are saved in batches, rejected rows are reported")
+    public BookImportReportDto importBooksFromCsv(InputStream inputStream) {
+        return bookImportService.importBooks(inputStream, BookImportFormat.CSV);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Import books from JSON lines",
+            description = "Streams one book creation request per line. "
+                    + "Valid rows are saved in batches, rejected rows are reported")
+    public BookImportReportDto importBooksFromJsonLines(InputStream inputStream) {
+        return bookImportService.importBooks(inputStream, BookImportFormat.NDJSON);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Export books",
+            description = "Streams the whole catalog as JSON lines. With 'changedSince' "
+                    + "only books changed since that time are exported, deleted ones included. "
+                    + "Books changed shortly before it are sent again")
+    public StreamingResponseBody exportBooks(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince
+    ) {
+        return outputStream -> bookExportService.exportBooks(changedSince, outputStream);
+    }
+
     @DeleteMapping(value = "/{id}")
     @PreAuthorize("hasAuthority('ADMIN')")
     @Operation(summary = "Remove book by id", description = "Implements soft delete")
@@ -66,10 +206,69 @@ public class BookController {
         return bookService.update(id, bookDto);
     }
 
+    @PutMapping(value = "/{id}/cover",
+            consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Upload a cover", description = "Stores a JPEG or PNG cover image "
+            + "of a book and points its coverImage to the cover endpoint")
+    public BookDto uploadCover(@PathVariable Long id,
+                               @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                               InputStream inputStream) {
+        return bookCoverService.uploadCover(id, contentType, inputStream);
+    }
+
+    @GetMapping("/{id}/cover")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Get a cover", description = "Returns the cover image of a book. "
+            + "Pass 'width' (100, 200 or 400) to get a thumbnail. Supports Range requests")
+    public ResponseEntity<Resource> getCover(@PathVariable Long id,
+                                             @RequestParam(required = false) Integer width,
+                                             WebRequest webRequest) {
+        CoverImage cover = bookCoverService.getCover(id, width);
+        if (webRequest.checkNotModified(cover.eTag(), cover.lastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(cover.mediaType())
+                .cacheControl(CacheControl.maxAge(coverMaxAge).cachePrivate())
+                .eTag(cover.eTag())
+                .lastModified(cover.lastModified())
+                .body(new FileSystemResource(cover.path()));
+    }
+
     @GetMapping("/search")
     @PreAuthorize("hasAuthority('USER')")
-    @Operation(summary = "Search book", description = "Finds books with certain parameters")
-    public List<BookDto> searchBooks(BookSearchParametersDto searchParameters) {
-        return bookService.search(searchParameters);
+    @Operation(summary = "Search book", description = "Finds books with certain parameters. "
+            + "Results are paged without counting all matches, a 'Link: rel=next' header "
+            + "points to the next page")
+    public ResponseEntity<List<BookDto>> searchBooks(BookSearchParametersDto searchParameters,
+                                                     Pageable pageable) {
+        Slice<BookDto> books = bookService.search(searchParameters, pageable);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (books.hasNext()) {
+            String nextPage = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("page", books.getNumber() + 1)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextPage + ">; rel=\"next\"");
+        }
+        return response.body(books.getContent());
+    }
+
+    @GetMapping("/search/facets")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Count search results by category",
+            description = "Returns the number of matching books per category id "
+                    + "for the same parameters as the search")
+    public Map<Long, Long> getSearchFacets(BookSearchParametersDto searchParameters) {
+        return bookService.getCategoryFacets(searchParameters);
+    }
+
+    @GetMapping(value = "/search", params = "after")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Search book with a cursor",
+            description = "Finds books with certain parameters using keyset pagination")
+    public CursorPageDto<BookDto> searchBooksByCursor(BookSearchParametersDto searchParameters,
+                                                      CursorPageRequestDto cursorRequest) {
+        return bookService.search(searchParameters, cursorRequest);
     }
 }
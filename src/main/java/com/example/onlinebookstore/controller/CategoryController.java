@@ -3,6 +3,8 @@ package com.example.onlinebookstore.controller;
 import com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.onlinebookstore.dto.category.CategoryResponseDto;
 import com.example.onlinebookstore.dto.category.CreateCategoryRequestDto;
+import com.example.onlinebookstore.dto.page.CursorPageDto;
+import com.example.onlinebookstore.dto.page.CursorPageRequestDto;
 import com.example.onlinebookstore.service.BookService;
 import com.example.onlinebookstore.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,6 +14,7 @@ import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequiredArgsConstructor
@@ -47,16 +51,26 @@ public class CategoryController {
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Find all categories",
             description = "Categories will be provided by pages")
-    public List<CategoryResponseDto> getAll(Pageable pageable) {
-        return categoryService.findAll(pageable);
+    public ResponseEntity<List<CategoryResponseDto>> getAll(Pageable pageable,
+                                                            WebRequest webRequest) {
+        String versionTag = categoryService.getVersionTag(pageable);
+        if (webRequest.checkNotModified(versionTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(versionTag).body(categoryService.findAll(pageable));
     }
 
     @GetMapping(value = "/{id}")
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Find category by id",
             description = "Provides a category wih the specific id")
-    public CategoryResponseDto getCategoryById(@PathVariable Long id) {
-        return categoryService.getById(id);
+    public ResponseEntity<CategoryResponseDto> getCategoryById(@PathVariable Long id,
+                                                               WebRequest webRequest) {
+        String versionTag = categoryService.getVersionTag(id);
+        if (webRequest.checkNotModified(versionTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(versionTag).body(categoryService.getById(id));
     }
 
     @PutMapping(value = "/{id}")
@@ -83,7 +97,25 @@ public class CategoryController {
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Find books by category id",
             description = "Returns all books with certain category id")
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable Long id) {
-        return bookService.getBooksByCategoryId(id);
+    public ResponseEntity<List<BookDtoWithoutCategoryIds>> getBooksByCategoryId(
+            @PathVariable Long id,
+            WebRequest webRequest
+    ) {
+        String versionTag = bookService.getCategoryBooksVersionTag(id);
+        if (webRequest.checkNotModified(versionTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(versionTag).body(bookService.getBooksByCategoryId(id));
+    }
+
+    @GetMapping(value = "/{id}/books", params = "after")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Find books by category id with a cursor",
+            description = "Returns books with certain category id using keyset pagination")
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryIdByCursor(
+            @PathVariable Long id,
+            CursorPageRequestDto cursorRequest
+    ) {
+        return bookService.getBooksByCategoryId(id, cursorRequest);
     }
 }
@@ -1,7 +1,10 @@
 package com.example.onlinebookstore.controller;
 
 import com.example.onlinebookstore.dto.cart.AddBookRequestDto;
+import com.example.onlinebookstore.dto.cart.CartBatchRequestDto;
+import com.example.onlinebookstore.dto.cart.CartBatchResponseDto;
 import com.example.onlinebookstore.dto.cart.CartResponseDto;
+import com.example.onlinebookstore.dto.cart.CartSummaryDto;
 import com.example.onlinebookstore.dto.cartitem.CartItemDto;
 import com.example.onlinebookstore.dto.cartitem.UpdateQuantityRequestDto;
 import com.example.onlinebookstore.model.User;
@@ -36,6 +39,15 @@ public class ShoppingCartController {
         return shoppingCartService.getShoppingCart(user.getId());
     }
 
+    @GetMapping(value = "/summary")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Get a cart summary",
+            description = "Provides the number of books in the user's cart and their total price")
+    public CartSummaryDto getSummary(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return shoppingCartService.getSummary(user.getId());
+    }
+
     @PostMapping
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Add a book to the cart", description = "Adds a book order to the cart")
@@ -45,6 +57,17 @@ public class ShoppingCartController {
         return shoppingCartService.addBook(user.getId(), addBookRequestDto);
     }
 
+    @PostMapping(value = "/batch")
+    @PreAuthorize("hasAuthority('USER')")
+    @Operation(summary = "Edit the cart in one request",
+            description = "Applies a list of add, update and remove operations to the cart. "
+                    + "Failed operations are skipped and reported by their index")
+    public CartBatchResponseDto applyBatch(@RequestBody @Valid CartBatchRequestDto requestDto,
+                                           Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return shoppingCartService.applyBatch(user.getId(), requestDto.getOperations());
+    }
+
     @PutMapping(value = "/cart-items/{id}")
     @PreAuthorize("hasAuthority('USER')")
     @Operation(summary = "Update order", description = "Updates a number of certain book ordered")
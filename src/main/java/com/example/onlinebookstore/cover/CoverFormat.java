@@ -0,0 +1,32 @@
+package com.example.onlinebookstore.cover;
+
+import java.util.Arrays;
+import java.util.Optional;
+import org.springframework.http.MediaType;
+
+public enum CoverFormat {
+    JPEG(MediaType.IMAGE_JPEG, "jpg"),
+    PNG(MediaType.IMAGE_PNG, "png");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    CoverFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static Optional<CoverFormat> of(MediaType mediaType) {
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.equalsTypeAndSubtype(mediaType))
+                .findFirst();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.onlinebookstore.cover;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+public record CoverImage(Path path, MediaType mediaType, String eTag, long lastModified) {
+    public static CoverImage of(Path path, MediaType mediaType) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path,
+                    BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String source = path.getFileName() + ":" + lastModified + ":" + attributes.size();
+            return new CoverImage(path, mediaType,
+                    DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)),
+                    lastModified);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the cover image " + path, e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.onlinebookstore.cover;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Slf4j
+@Component
+public class ThumbnailCache {
+    private static final String THUMBNAILS = "thumbnails";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<Path, Long> thumbnailSizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    @Autowired
+    public ThumbnailCache(@Value("${book.covers.directory}") Path coversDirectory,
+                          @Value("${book.covers.thumbnail-cache-size}") DataSize maxSize) {
+        this.directory = coversDirectory.resolve(THUMBNAILS);
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> Files.isRegularFile(file)
+                            && !file.getFileName().toString().endsWith(TEMPORARY_SUFFIX))
+                    .sorted(Comparator.comparing(ThumbnailCache::lastModified))
+                    .forEach(file -> register(file, size(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't list thumbnails in " + directory, e);
+        }
+        evictOverflow(null);
+        log.info("Thumbnail cache loaded: {} files, {} bytes", thumbnailSizes.size(), totalBytes);
+    }
+
+    public Path get(Path original, CoverFormat format, Long bookId, int width) {
+        Path thumbnail = directory.resolve(bookId + "-" + width + "." + format.getExtension());
+        synchronized (this) {
+            if (thumbnailSizes.get(thumbnail) != null && Files.exists(thumbnail)
+                    && lastModified(thumbnail).compareTo(lastModified(original)) >= 0) {
+                return thumbnail;
+            }
+        }
+        generate(original, thumbnail, format, width);
+        synchronized (this) {
+            register(thumbnail, size(thumbnail));
+            evictOverflow(thumbnail);
+        }
+        return thumbnail;
+    }
+
+    public synchronized void evict(Long bookId) {
+        String prefix = bookId + "-";
+        Iterator<Map.Entry<Path, Long>> entries = thumbnailSizes.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (entry.getKey().getFileName().toString().startsWith(prefix)) {
+                delete(entry.getKey());
+                totalBytes -= entry.getValue();
+                entries.remove();
+            }
+        }
+    }
+
+    private void generate(Path original, Path thumbnail, CoverFormat format, int width) {
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                throw new IllegalStateException("Can't decode the cover image " + original);
+            }
+            int targetWidth = Math.min(width, source.getWidth());
+            int targetHeight = Math.max(1,
+                    Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+            BufferedImage resized = new BufferedImage(targetWidth, targetHeight,
+                    source.getColorModel().hasAlpha()
+                            ? BufferedImage.TYPE_INT_ARGB
+                            : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = resized.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "thumbnail", TEMPORARY_SUFFIX);
+            try {
+                ImageIO.write(resized, format.getExtension(), temporary.toFile());
+                Files.move(temporary, thumbnail, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create the thumbnail " + thumbnail, e);
+        }
+    }
+
+    private void register(Path thumbnail, long size) {
+        Long previousSize = thumbnailSizes.put(thumbnail, size);
+        totalBytes += size - (previousSize == null ? 0 : previousSize);
+    }
+
+    private void evictOverflow(Path keep) {
+        Iterator<Map.Entry<Path, Long>> entries = thumbnailSizes.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.hasNext()) {
+            Map.Entry<Path, Long> entry = entries.next();
+            if (!entry.getKey().equals(keep)) {
+                delete(entry.getKey());
+                totalBytes -= entry.getValue();
+                entries.remove();
+            }
+        }
+    }
+
+    private static void delete(Path thumbnail) {
+        try {
+            Files.deleteIfExists(thumbnail);
+        } catch (IOException e) {
+            log.warn("Can't delete the thumbnail {}", thumbnail, e);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the size of " + file, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the modification time of " + file, e);
+        }
+    }
+}
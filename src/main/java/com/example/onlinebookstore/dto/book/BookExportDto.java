@@ -0,0 +1,19 @@
+package com.example.onlinebookstore.dto.book;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BookExportDto {
+    private Long id;
+    private String title;
+    private String isbn;
+    private BigDecimal price;
+    private String description;
+    private String coverImage;
+    private List<Long> categoryIds;
+    private LocalDateTime updatedAt;
+    private boolean deleted;
+}
@@ -0,0 +1,11 @@
+package com.example.onlinebookstore.dto.book;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BookIdsRequestDto {
+    @NotNull
+    private List<Long> ids;
+}
@@ -0,0 +1,12 @@
+package com.example.onlinebookstore.dto.book;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BookImportReportDto {
+    private int imported;
+    private int rejected;
+    private List<RejectedBookRowDto> rejectedRows = new ArrayList<>();
+}
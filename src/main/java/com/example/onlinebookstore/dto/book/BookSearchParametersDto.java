@@ -1,4 +1,5 @@
 package com.example.onlinebookstore.dto.book;
 
-public record BookSearchParametersDto(String[] titles, String[] isbns) {
+public record BookSearchParametersDto(String[] titles, String[] isbns, String query,
+                                      String[] categoryIds, String[] allCategoryIds) {
 }
@@ -0,0 +1,4 @@
+package com.example.onlinebookstore.dto.book;
+
+public record BookSuggestionDto(Long id, String title) {
+}
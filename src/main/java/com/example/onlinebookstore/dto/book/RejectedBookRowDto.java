@@ -0,0 +1,4 @@
+package com.example.onlinebookstore.dto.book;
+
+public record RejectedBookRowDto(int line, String error) {
+}
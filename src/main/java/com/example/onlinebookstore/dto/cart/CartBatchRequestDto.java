@@ -0,0 +1,12 @@
+package com.example.onlinebookstore.dto.cart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class CartBatchRequestDto {
+    @NotNull
+    private List<@Valid @NotNull CartOperationDto> operations;
+}
@@ -0,0 +1,14 @@
+package com.example.onlinebookstore.dto.cart;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchResponseDto {
+    private CartResponseDto cart;
+    private List<CartOperationErrorDto> errors;
+}
@@ -0,0 +1,19 @@
+package com.example.onlinebookstore.dto.cart;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartOperationDto {
+    @NotNull
+    private Type type;
+    private Long bookId;
+    private Long cartItemId;
+    private int quantity;
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.onlinebookstore.dto.cart;
+
+public record CartOperationErrorDto(int index, String message) {
+}
@@ -1,6 +1,7 @@
 package com.example.onlinebookstore.dto.cart;
 
 import com.example.onlinebookstore.dto.cartitem.CartItemDto;
+import java.math.BigDecimal;
 import java.util.List;
 import lombok.Data;
 
@@ -9,4 +10,6 @@ public class CartResponseDto {
     private Long id;
     private Long userId;
     private List<CartItemDto> cartItems;
+    private int itemCount;
+    private BigDecimal total;
 }
@@ -0,0 +1,6 @@
+package com.example.onlinebookstore.dto.cart;
+
+import java.math.BigDecimal;
+
+public record CartSummaryDto(Long id, int itemCount, BigDecimal total) {
+}
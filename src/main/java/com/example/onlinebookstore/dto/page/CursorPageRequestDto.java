@@ -0,0 +1,4 @@
+package com.example.onlinebookstore.dto.page;
+
+public record CursorPageRequestDto(String after, String sort, Integer size) {
+}
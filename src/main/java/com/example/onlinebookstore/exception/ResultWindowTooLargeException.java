@@ -0,0 +1,11 @@
+package com.example.onlinebookstore.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ResultWindowTooLargeException extends RuntimeException {
+    public ResultWindowTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.onlinebookstore.isbn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class IsbnBloomFilter {
+    private static final double LN2 = Math.log(2);
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    IsbnBloomFilter(long expectedIsbns, double falsePositiveRate) {
+        long expected = Math.max(1, expectedIsbns);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = (long) words.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * LN2));
+    }
+
+    void put(String isbn) {
+        long hash = hash(isbn);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(hash, i);
+            words.getAndAccumulate((int) (bit >>> 6), 1L << bit, (word, mask) -> word | mask);
+        }
+    }
+
+    boolean mightContain(String isbn) {
+        long hash = hash(isbn);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bitIndex(long hash, int i) {
+        long first = hash & 0xFFFFFFFFL;
+        long second = hash >>> 32;
+        return Math.floorMod(first + i * second, bitCount);
+    }
+
+    private static long hash(String isbn) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : isbn.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
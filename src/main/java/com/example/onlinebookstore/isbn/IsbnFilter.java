@@ -0,0 +1,75 @@
+package com.example.onlinebookstore.isbn;
+
+import com.example.onlinebookstore.repository.BookBatchRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IsbnFilter {
+    private static final long MIN_EXPECTED_ISBNS = 10_000;
+    private final BookBatchRepository bookBatchRepository;
+    private volatile IsbnBloomFilter filter;
+    private volatile IsbnBloomFilter nextFilter;
+    @Value("${book.isbn-filter.false-positive-rate}")
+    private double falsePositiveRate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${book.isbn-filter.rebuild-interval}",
+            initialDelayString = "${book.isbn-filter.rebuild-interval}")
+    public void rebuild() {
+        long isbnCount = bookBatchRepository.countIsbns();
+        IsbnBloomFilter newFilter = new IsbnBloomFilter(
+                Math.max(MIN_EXPECTED_ISBNS, isbnCount * 2), falsePositiveRate);
+        nextFilter = newFilter;
+        try {
+            bookBatchRepository.forEachIsbn(newFilter::put);
+            filter = newFilter;
+        } finally {
+            nextFilter = null;
+        }
+        log.info("Isbn filter rebuilt: {} isbns", isbnCount);
+    }
+
+    public void add(String isbn) {
+        IsbnBloomFilter next = nextFilter;
+        if (next != null) {
+            next.put(isbn);
+        }
+        IsbnBloomFilter current = filter;
+        if (current != null) {
+            current.put(isbn);
+        }
+    }
+
+    public boolean isTaken(String isbn, Long exceptBookId) {
+        if (isbn == null || !mightContain(isbn)) {
+            return false;
+        }
+        Long ownerId = bookBatchRepository.findIdsByIsbns(List.of(isbn)).get(isbn);
+        return ownerId != null && !ownerId.equals(exceptBookId);
+    }
+
+    public Set<String> findTaken(Collection<String> isbns) {
+        List<String> candidates = isbns.stream()
+                .filter(this::mightContain)
+                .toList();
+        return candidates.isEmpty()
+                ? Set.of()
+                : bookBatchRepository.findIdsByIsbns(candidates).keySet();
+    }
+
+    private boolean mightContain(String isbn) {
+        IsbnBloomFilter current = filter;
+        return current == null || current.mightContain(isbn);
+    }
+}
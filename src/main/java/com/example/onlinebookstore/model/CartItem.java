@@ -9,6 +9,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -19,7 +20,8 @@ import org.hibernate.annotations.Where;
 @Entity
 @Table(name = "cart_items")
 @Where(clause = "is_deleted = false")
-@SQLDelete(sql = "UPDATE cart_items SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE cart_items SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP(6), "
+        + "version = version + 1 WHERE id = ? AND version = ?")
 public class CartItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,4 +40,6 @@ public class CartItem {
     private int quantity;
     @Column(nullable = false)
     private boolean isDeleted = false;
+    @Version
+    private Long version;
 }
@@ -14,6 +14,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.Set;
 import lombok.Data;
@@ -26,7 +27,8 @@ import org.hibernate.annotations.Where;
 @Entity
 @Table(name = "orders")
 @Where(clause = "is_deleted = false")
-@SQLDelete(sql = "UPDATE orders SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE orders SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP(6), "
+        + "version = version + 1 WHERE id = ? AND version = ?")
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -50,6 +52,8 @@ public class Order {
     private Set<OrderItem> orderItems;
     @Column(nullable = false)
     private boolean isDeleted = false;
+    @Version
+    private Long version;
 
     public enum Status {
         PENDING,
@@ -19,7 +19,8 @@ import org.hibernate.annotations.Where;
 @Entity
 @Table(name = "order_items")
 @Where(clause = "is_deleted = false")
-@SQLDelete(sql = "UPDATE order_items SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE order_items SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP(6) "
+        + "WHERE id = ?")
 public class OrderItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
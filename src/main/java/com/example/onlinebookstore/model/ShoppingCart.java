@@ -10,6 +10,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.math.BigDecimal;
 import java.util.Set;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -21,7 +23,8 @@ import org.hibernate.annotations.Where;
 @Entity
 @Table(name = "shopping_carts")
 @Where(clause = "is_deleted = false")
-@SQLDelete(sql = "UPDATE shopping_carts SET is_deleted = true WHERE id = ?")
+@SQLDelete(sql = "UPDATE shopping_carts SET is_deleted = true, version = version + 1 "
+        + "WHERE id = ? AND version = ?")
 public class ShoppingCart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +38,12 @@ public class ShoppingCart {
     @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "shoppingCart", fetch = FetchType.EAGER)
     private Set<CartItem> cartItems;
+    @Column(nullable = false, updatable = false)
+    private int itemCount;
+    @Column(nullable = false, updatable = false)
+    private BigDecimal total = BigDecimal.ZERO;
     @Column(nullable = false)
     private boolean isDeleted = false;
+    @Version
+    private Long version;
 }
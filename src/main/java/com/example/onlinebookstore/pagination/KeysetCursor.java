@@ -0,0 +1,123 @@
+package com.example.onlinebookstore.pagination;
+
+import com.example.onlinebookstore.dto.page.CursorPageDto;
+import com.example.onlinebookstore.dto.page.CursorPageRequestDto;
+import com.example.onlinebookstore.exception.InvalidCursorException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+public final class KeysetCursor {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String ID = "id";
+    private static final String SEPARATOR = "\n";
+    private static final Map<String, Function<String, Object>> SORT_KEYS = Map.of(
+            ID, Long::valueOf,
+            "title", value -> value,
+            "price", BigDecimal::new
+    );
+    private final String sortKey;
+    private final KeysetScrollPosition position;
+    private final int size;
+
+    private KeysetCursor(String sortKey, KeysetScrollPosition position, int size) {
+        this.sortKey = sortKey;
+        this.position = position;
+        this.size = size;
+    }
+
+    public static KeysetCursor of(CursorPageRequestDto request) {
+        int size = request.size() == null
+                ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(request.size(), MAX_PAGE_SIZE));
+        if (request.after() == null || request.after().isBlank()) {
+            String sortKey = request.sort() == null || request.sort().isBlank()
+                    ? ID
+                    : request.sort();
+            checkSortKey(sortKey);
+            return new KeysetCursor(sortKey, ScrollPosition.keyset(), size);
+        }
+        String[] parts = decodeToken(request.after());
+        String sortKey = parts[0];
+        checkSortKey(sortKey);
+        Map<String, Object> keys = new HashMap<>();
+        try {
+            keys.put(ID, Long.valueOf(parts[1]));
+            if (!ID.equals(sortKey)) {
+                keys.put(sortKey, SORT_KEYS.get(sortKey).apply(parts[2]));
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed cursor " + request.after(), e);
+        }
+        return new KeysetCursor(sortKey, ScrollPosition.forward(keys), size);
+    }
+
+    public Sort sort() {
+        return ID.equals(sortKey)
+                ? Sort.by(ID)
+                : Sort.by(sortKey).and(Sort.by(ID));
+    }
+
+    public KeysetScrollPosition position() {
+        return position;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public <T, R> CursorPageDto<R> toPage(Window<T> window, Function<? super T, R> mapper) {
+        List<R> content = window.getContent().stream()
+                .map(mapper)
+                .toList();
+        if (!window.hasNext() || window.isEmpty()) {
+            return new CursorPageDto<>(content, null, false);
+        }
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        return new CursorPageDto<>(content, encode(last.getKeys()), true);
+    }
+
+    private String encode(Map<String, Object> keys) {
+        StringBuilder token = new StringBuilder(sortKey)
+                .append(SEPARATOR)
+                .append(keys.get(ID));
+        if (!ID.equals(sortKey)) {
+            Object value = keys.get(sortKey);
+            token.append(SEPARATOR)
+                    .append(value instanceof BigDecimal decimal ? decimal.toPlainString() : value);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeToken(String token) {
+        String[] parts;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token),
+                    StandardCharsets.UTF_8);
+            parts = decoded.split(SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor " + token, e);
+        }
+        if (parts.length < 2 || (!ID.equals(parts[0]) && parts.length < 3)) {
+            throw new InvalidCursorException("Malformed cursor " + token);
+        }
+        return parts;
+    }
+
+    private static void checkSortKey(String sortKey) {
+        if (!SORT_KEYS.containsKey(sortKey)) {
+            throw new InvalidCursorException("Cursor paging doesn't support sorting by "
+                    + sortKey + ". Supported keys: " + SORT_KEYS.keySet());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.onlinebookstore.ranking;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookActivityCounters {
+    private final Map<Long, LongAdder> sales = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> views = new ConcurrentHashMap<>();
+
+    public void recordSale(Long bookId, int quantity) {
+        sales.computeIfAbsent(bookId, id -> new LongAdder()).add(quantity);
+    }
+
+    public void recordView(Long bookId) {
+        views.computeIfAbsent(bookId, id -> new LongAdder()).increment();
+    }
+
+    public Map<Long, Long> drainSales() {
+        return drain(sales);
+    }
+
+    public Map<Long, Long> drainViews() {
+        return drain(views);
+    }
+
+    public void remove(Long bookId) {
+        sales.remove(bookId);
+        views.remove(bookId);
+    }
+
+    private static Map<Long, Long> drain(Map<Long, LongAdder> counters) {
+        Map<Long, Long> deltas = new HashMap<>();
+        counters.forEach((bookId, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta > 0) {
+                deltas.put(bookId, delta);
+            }
+        });
+        return deltas;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.onlinebookstore.ranking;
+
+import java.time.LocalDateTime;
+
+public record BookRankingScore(Long bookId, double salesScore, double viewsScore,
+                               LocalDateTime scoredAt) {
+}
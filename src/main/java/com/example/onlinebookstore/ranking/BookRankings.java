@@ -0,0 +1,157 @@
+package com.example.onlinebookstore.ranking;
+
+import com.example.onlinebookstore.repository.BookRankingRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookRankings {
+    private static final double MIN_SCORE = 0.01;
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int VIEWS_PER_SALE = 10;
+    private final BookActivityCounters bookActivityCounters;
+    private final BookRankingRepository bookRankingRepository;
+    private final Map<Long, double[]> scores = new HashMap<>();
+    private final Set<Long> changedBookIds = new HashSet<>();
+    private final AtomicReference<Map<RankingType, List<Long>>> topBooks =
+            new AtomicReference<>(Map.of());
+    private LocalDateTime scoredAt = LocalDateTime.now();
+    @Value("${book.rankings.half-life}")
+    private Duration halfLife;
+    @Value("${book.rankings.top-size}")
+    private int topSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        for (BookRankingScore score : bookRankingRepository.findAll()) {
+            double decay = decay(score.scoredAt(), now);
+            scores.put(score.bookId(), new double[]{
+                    score.salesScore() * decay, score.viewsScore() * decay});
+        }
+        scoredAt = now;
+        topBooks.set(rank());
+        log.info("Book rankings loaded: {} books", scores.size());
+    }
+
+    @Scheduled(fixedDelayString = "${book.rankings.flush-interval}",
+            initialDelayString = "${book.rankings.flush-interval}")
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        double decay = decay(scoredAt, now);
+        scores.values().removeIf(score -> {
+            score[RankingType.BESTSELLERS.ordinal()] *= decay;
+            score[RankingType.TRENDING.ordinal()] *= decay;
+            return score[RankingType.BESTSELLERS.ordinal()] < MIN_SCORE
+                    && score[RankingType.TRENDING.ordinal()] < MIN_SCORE;
+        });
+        scoredAt = now;
+        add(RankingType.BESTSELLERS, bookActivityCounters.drainSales());
+        add(RankingType.TRENDING, bookActivityCounters.drainViews());
+        topBooks.set(rank());
+
+        List<BookRankingScore> changedScores = new ArrayList<>();
+        for (Long bookId : changedBookIds) {
+            double[] score = scores.getOrDefault(bookId, new double[2]);
+            changedScores.add(new BookRankingScore(bookId,
+                    score[RankingType.BESTSELLERS.ordinal()],
+                    score[RankingType.TRENDING.ordinal()], now));
+        }
+        try {
+            bookRankingRepository.upsertAll(changedScores, FLUSH_BATCH_SIZE);
+            changedBookIds.clear();
+        } catch (DataAccessException e) {
+            log.warn("Can't flush {} book rankings, retrying on the next flush",
+                    changedScores.size(), e);
+        }
+    }
+
+    public List<Long> getTop(RankingType type, int limit) {
+        List<Long> top = topBooks.get().getOrDefault(type, List.of());
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public synchronized Map<Long, Double> getPopularity() {
+        Map<Long, Double> popularity = new HashMap<>();
+        scores.forEach((bookId, score) -> popularity.put(bookId,
+                score[RankingType.BESTSELLERS.ordinal()] * VIEWS_PER_SALE
+                        + score[RankingType.TRENDING.ordinal()]));
+        return popularity;
+    }
+
+    public int getTopSize() {
+        return topSize;
+    }
+
+    public synchronized void remove(Long bookId) {
+        bookActivityCounters.remove(bookId);
+        scores.remove(bookId);
+        changedBookIds.remove(bookId);
+        bookRankingRepository.deleteByBookId(bookId);
+        Map<RankingType, List<Long>> withoutBook = new EnumMap<>(RankingType.class);
+        topBooks.get().forEach((type, bookIds) -> withoutBook.put(type, bookIds.stream()
+                .filter(id -> !id.equals(bookId))
+                .toList()));
+        topBooks.set(withoutBook);
+    }
+
+    private void add(RankingType type, Map<Long, Long> deltas) {
+        deltas.forEach((bookId, delta) -> {
+            scores.computeIfAbsent(bookId, id -> new double[2])[type.ordinal()] += delta;
+            changedBookIds.add(bookId);
+        });
+    }
+
+    private Map<RankingType, List<Long>> rank() {
+        Map<RankingType, List<Long>> ranking = new EnumMap<>(RankingType.class);
+        for (RankingType type : RankingType.values()) {
+            Comparator<Map.Entry<Long, double[]>> byScore = Comparator.comparingDouble(
+                    entry -> entry.getValue()[type.ordinal()]);
+            PriorityQueue<Map.Entry<Long, double[]>> top = new PriorityQueue<>(byScore);
+            for (Map.Entry<Long, double[]> entry : scores.entrySet()) {
+                if (entry.getValue()[type.ordinal()] < MIN_SCORE) {
+                    continue;
+                }
+                top.add(entry);
+                if (top.size() > topSize) {
+                    top.poll();
+                }
+            }
+            List<Long> bookIds = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                bookIds.add(top.poll().getKey());
+            }
+            Collections.reverse(bookIds);
+            ranking.put(type, bookIds);
+        }
+        return ranking;
+    }
+
+    private double decay(LocalDateTime from, LocalDateTime to) {
+        double halfLives = (double) Duration.between(from, to).toMillis() / halfLife.toMillis();
+        return Math.pow(0.5, Math.max(0, halfLives));
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.onlinebookstore.ranking;
+
+public enum RankingType {
+    BESTSELLERS,
+    TRENDING
+}
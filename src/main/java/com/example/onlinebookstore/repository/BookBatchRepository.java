@@ -0,0 +1,115 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class BookBatchRepository {
+    private static final String FIND_IDS_BY_ISBNS = "SELECT id, isbn FROM books "
+            + "WHERE isbn IN (:isbns)";
+    private static final String COUNT_ISBNS = "SELECT COUNT(*) FROM books";
+    private static final String FIND_ALL_ISBNS = "SELECT isbn FROM books";
+    private static final String FIND_CATEGORY_IDS = "SELECT book_id, category_id "
+            + "FROM books_categories WHERE book_id IN (:bookIds)";
+    private static final String FIND_LIVE_CATEGORY_LINKS = "SELECT bc.book_id, "
+            + "bc.category_id FROM books_categories bc "
+            + "JOIN books b ON b.id = bc.book_id AND b.is_deleted = false "
+            + "JOIN categories c ON c.id = bc.category_id AND c.is_deleted = false";
+    private static final String INSERT_BOOK = "INSERT INTO books "
+            + "(title, isbn, price, description, cover_image) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_BOOK_CATEGORY = "INSERT INTO books_categories "
+            + "(book_id, category_id) VALUES (?, ?)";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Map<String, Long> findIdsByIsbns(Collection<String> isbns) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(FIND_IDS_BY_ISBNS, Map.of("isbns", isbns), resultSet -> {
+            ids.put(resultSet.getString("isbn"), resultSet.getLong("id"));
+        });
+        return ids;
+    }
+
+    public long countIsbns() {
+        Long count = jdbcTemplate.getJdbcTemplate().queryForObject(COUNT_ISBNS, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public void forEachIsbn(Consumer<String> isbnConsumer) {
+        jdbcTemplate.getJdbcTemplate().query(FIND_ALL_ISBNS, resultSet -> {
+            isbnConsumer.accept(resultSet.getString("isbn"));
+        });
+    }
+
+    public Map<Long, List<Long>> findCategoryIds(Collection<Long> bookIds) {
+        Map<Long, List<Long>> categoryIds = new HashMap<>();
+        jdbcTemplate.query(FIND_CATEGORY_IDS, Map.of("bookIds", bookIds), resultSet -> {
+            categoryIds.computeIfAbsent(resultSet.getLong("book_id"), id -> new ArrayList<>())
+                    .add(resultSet.getLong("category_id"));
+        });
+        return categoryIds;
+    }
+
+    public void forEachLiveCategoryLink(BiConsumer<Long, Long> bookCategoryConsumer) {
+        jdbcTemplate.getJdbcTemplate().query(FIND_LIVE_CATEGORY_LINKS, resultSet -> {
+            bookCategoryConsumer.accept(resultSet.getLong("book_id"),
+                    resultSet.getLong("category_id"));
+        });
+    }
+
+    public List<Long> insertAll(List<CreateBookRequestDto> books) {
+        List<Long> ids = jdbcTemplate.getJdbcTemplate().execute(
+                (ConnectionCallback<List<Long>>) connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            INSERT_BOOK, Statement.RETURN_GENERATED_KEYS)) {
+                        for (CreateBookRequestDto book : books) {
+                            statement.setString(1, book.getTitle());
+                            statement.setString(2, book.getIsbn());
+                            statement.setBigDecimal(3, book.getPrice());
+                            statement.setString(4, book.getDescription());
+                            statement.setString(5, book.getCoverImage());
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        List<Long> generatedIds = new ArrayList<>(books.size());
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                generatedIds.add(keys.getLong(1));
+                            }
+                        }
+                        return generatedIds;
+                    }
+                });
+        if (ids == null || ids.size() != books.size()) {
+            throw new IllegalStateException("Expected " + books.size()
+                    + " generated book ids but got " + (ids == null ? 0 : ids.size()));
+        }
+        List<Object[]> bookCategories = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            List<Long> categoryIds = books.get(i).getCategoryIds();
+            if (categoryIds != null) {
+                for (Long categoryId : new HashSet<>(categoryIds)) {
+                    bookCategories.add(new Object[]{ids.get(i), categoryId});
+                }
+            }
+        }
+        if (!bookCategories.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_BOOK_CATEGORY, bookCategories);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.config.DataSourceConfig;
+import com.example.onlinebookstore.dto.book.BookExportDto;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class BookExportRepository {
+    private static final int FETCH_SIZE = 1000;
+    private static final String SELECT_BOOKS = "SELECT id, title, isbn, price, description, "
+            + "cover_image, updated_at, is_deleted FROM books ";
+    private static final String FIND_ALL = SELECT_BOOKS
+            + "WHERE is_deleted = false ORDER BY id";
+    private static final String FIND_CHANGED_SINCE = SELECT_BOOKS
+            + "WHERE updated_at >= ? ORDER BY updated_at, id";
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookExportRepository(
+            @Qualifier(DataSourceConfig.BOOK_EXPORT_DATA_SOURCE) DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void forEachBook(LocalDateTime changedFrom, Consumer<BookExportDto> bookConsumer) {
+        RowCallbackHandler handler = resultSet -> bookConsumer.accept(toExportDto(resultSet));
+        if (changedFrom == null) {
+            jdbcTemplate.query(FIND_ALL, handler);
+        } else {
+            jdbcTemplate.query(FIND_CHANGED_SINCE, handler, changedFrom);
+        }
+    }
+
+    private BookExportDto toExportDto(ResultSet resultSet) throws SQLException {
+        BookExportDto exportDto = new BookExportDto();
+        exportDto.setId(resultSet.getLong("id"));
+        exportDto.setTitle(resultSet.getString("title"));
+        exportDto.setIsbn(resultSet.getString("isbn"));
+        exportDto.setPrice(resultSet.getBigDecimal("price"));
+        exportDto.setDescription(resultSet.getString("description"));
+        exportDto.setCoverImage(resultSet.getString("cover_image"));
+        exportDto.setUpdatedAt(resultSet.getObject("updated_at", LocalDateTime.class));
+        exportDto.setDeleted(resultSet.getBoolean("is_deleted"));
+        return exportDto;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.model.Book;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookIdRepository {
+    List<Long> findIds(Specification<Book> specification);
+}
@@ -0,0 +1,43 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.ranking.BookRankingScore;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class BookRankingRepository {
+    private static final String FIND_ALL = "SELECT book_id, sales_score, views_score, scored_at "
+            + "FROM book_rankings";
+    private static final String UPSERT = "INSERT INTO book_rankings "
+            + "(book_id, sales_score, views_score, scored_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE sales_score = VALUES(sales_score), "
+            + "views_score = VALUES(views_score), scored_at = VALUES(scored_at)";
+    private static final String DELETE = "DELETE FROM book_rankings WHERE book_id = ?";
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<BookRankingScore> findAll() {
+        return jdbcTemplate.query(FIND_ALL, (resultSet, rowNumber) -> new BookRankingScore(
+                resultSet.getLong("book_id"),
+                resultSet.getDouble("sales_score"),
+                resultSet.getDouble("views_score"),
+                resultSet.getTimestamp("scored_at").toLocalDateTime()));
+    }
+
+    public void upsertAll(Collection<BookRankingScore> scores, int batchSize) {
+        jdbcTemplate.batchUpdate(UPSERT, scores, batchSize, (statement, score) -> {
+            statement.setLong(1, score.bookId());
+            statement.setDouble(2, score.salesScore());
+            statement.setDouble(3, score.viewsScore());
+            statement.setTimestamp(4, Timestamp.valueOf(score.scoredAt()));
+        });
+    }
+
+    public void deleteByBookId(Long bookId) {
+        jdbcTemplate.update(DELETE, bookId);
+    }
+}
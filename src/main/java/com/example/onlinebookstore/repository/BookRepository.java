@@ -1,15 +1,81 @@
 package com.example.onlinebookstore.repository;
 
+import com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.search.BookSearchDocument;
+import com.example.onlinebookstore.version.EntityVersion;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
-    @Query(value = "SELECT b "
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookIdRepository {
+    String SELECT_BOOK_WITHOUT_CATEGORY_IDS = "SELECT new "
+            + "com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds("
+            + "b.id, b.title, b.isbn, b.price, b.description, b.coverImage) ";
+    String SELECT_BOOK_VERSION = "SELECT new com.example.onlinebookstore.version.EntityVersion("
+            + "b.id, b.updatedAt) ";
+
+    @Override
+    @EntityGraph(Book.WITH_CATEGORIES)
+    Optional<Book> findById(Long id);
+
+    @Override
+    @EntityGraph(Book.WITH_CATEGORIES)
+    List<Book> findAllById(Iterable<Long> ids);
+
+    @Override
+    @EntityGraph(Book.WITH_CATEGORIES)
+    List<Book> findAll(Specification<Book> specification);
+
+    @Query(value = SELECT_BOOK_WITHOUT_CATEGORY_IDS
             + "FROM Book b "
             + "JOIN b.categories c "
             + "WHERE c.id = :categoryId")
-    List<Book> findAllByCategoryId(Long categoryId);
+    List<BookDtoWithoutCategoryIds> findAllByCategoryId(Long categoryId);
+
+    @Query("SELECT b.price FROM Book b WHERE b.id = :id")
+    Optional<BigDecimal> findPriceById(Long id);
+
+    @Query(value = SELECT_BOOK_VERSION
+            + "FROM Book b")
+    List<EntityVersion> findAllVersions(Pageable pageable);
+
+    @Query(value = SELECT_BOOK_VERSION
+            + "FROM Book b "
+            + "JOIN b.categories c "
+            + "WHERE c.id = :categoryId")
+    List<EntityVersion> findVersionsByCategoryId(Long categoryId);
+
+    @Modifying
+    @Query(value = "UPDATE books SET updated_at = CURRENT_TIMESTAMP(6) "
+            + "WHERE id IN (SELECT book_id FROM books_categories WHERE category_id = :categoryId)",
+            nativeQuery = true)
+    void touchByCategoryId(Long categoryId);
+
+    @Query(value = "SELECT new com.example.onlinebookstore.search.BookSearchDocument("
+            + "b.id, b.title, b.isbn, b.description) "
+            + "FROM Book b "
+            + "WHERE b.id > :afterId "
+            + "ORDER BY b.id")
+    List<BookSearchDocument> findSearchDocumentsAfter(Long afterId, Pageable pageable);
+
+    static Specification<Book> hasCategory(Long categoryId) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.join("categories").get("id"), categoryId);
+    }
+
+    static Specification<Book> hasIdIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> ids.isEmpty()
+                ? criteriaBuilder.disjunction()
+                : root.get("id").in(ids);
+    }
 }
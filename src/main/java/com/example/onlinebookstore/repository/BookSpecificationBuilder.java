@@ -10,6 +10,8 @@ import org.springframework.stereotype.Component;
 public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
     private static final String ISBN = "isbn";
     private static final String TITLE = "title";
+    private static final String CATEGORY_IDS = "categoryIds";
+    private static final String ALL_CATEGORY_IDS = "allCategoryIds";
     private final SpecificationProviderManager<Book> bookSpecificationProviderManager;
 
     @Autowired
@@ -35,6 +37,24 @@ public class BookSpecificationBuilder implements SpecificationBuilder<Book> {
                     ? Specification.where(isbnsSpecification)
                     : specification.and(isbnsSpecification);
         }
+        if (searchParameters.categoryIds() != null
+                && searchParameters.categoryIds().length > 0) {
+            Specification<Book> categoriesSpecification = bookSpecificationProviderManager
+                    .getSpecificationProvider(CATEGORY_IDS)
+                    .getSpecification(searchParameters.categoryIds());
+            specification = specification == null
+                    ? Specification.where(categoriesSpecification)
+                    : specification.and(categoriesSpecification);
+        }
+        if (searchParameters.allCategoryIds() != null
+                && searchParameters.allCategoryIds().length > 0) {
+            Specification<Book> allCategoriesSpecification = bookSpecificationProviderManager
+                    .getSpecificationProvider(ALL_CATEGORY_IDS)
+                    .getSpecification(searchParameters.allCategoryIds());
+            specification = specification == null
+                    ? Specification.where(allCategoriesSpecification)
+                    : specification.and(allCategoriesSpecification);
+        }
         return specification == null ? Specification.where(null) : specification;
     }
 }
@@ -0,0 +1,106 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.cart.CartBook;
+import com.example.onlinebookstore.cart.CartItemRow;
+import com.example.onlinebookstore.cart.CartMutation;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@RequiredArgsConstructor
+public class CartItemBatchRepository {
+    private static final String FIND_ITEMS = "SELECT ci.id, ci.book_id, b.title, ci.quantity, "
+            + "b.price FROM cart_items ci JOIN books b ON b.id = ci.book_id "
+            + "WHERE ci.shopping_cart_id = ? AND ci.is_deleted = false ORDER BY ci.id";
+    private static final String FIND_ITEM_IDS = "SELECT id, shopping_cart_id, book_id "
+            + "FROM cart_items WHERE shopping_cart_id IN (:shoppingCartIds) "
+            + "AND is_deleted = false";
+    private static final String FIND_BOOK = "SELECT title, price FROM books "
+            + "WHERE id = ? AND is_deleted = false";
+    private static final String FIND_LIVE_BOOK_IDS = "SELECT id FROM books "
+            + "WHERE id IN (:bookIds) AND is_deleted = false";
+    private static final String ADD_QUANTITY = "INSERT INTO cart_items "
+            + "(shopping_cart_id, book_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), "
+            + "version = version + 1";
+    private static final String SET_QUANTITY = "INSERT INTO cart_items "
+            + "(shopping_cart_id, book_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), version = version + 1";
+    private static final String REMOVE = "UPDATE cart_items SET is_deleted = true, "
+            + "deleted_at = CURRENT_TIMESTAMP(6), version = version + 1 "
+            + "WHERE shopping_cart_id = ? AND book_id = ? AND is_deleted = false";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<CartItemRow> findItems(Long shoppingCartId) {
+        return jdbcTemplate.getJdbcTemplate().query(FIND_ITEMS,
+                (resultSet, rowNumber) -> new CartItemRow(resultSet.getLong("id"),
+                        resultSet.getLong("book_id"), resultSet.getString("title"),
+                        resultSet.getInt("quantity"), resultSet.getBigDecimal("price")),
+                shoppingCartId);
+    }
+
+    public Map<Long, Map<Long, Long>> findItemIds(Collection<Long> shoppingCartIds) {
+        Map<Long, Map<Long, Long>> itemIds = new HashMap<>();
+        jdbcTemplate.query(FIND_ITEM_IDS, Map.of("shoppingCartIds", shoppingCartIds),
+                resultSet -> {
+                    itemIds.computeIfAbsent(resultSet.getLong("shopping_cart_id"),
+                                    id -> new HashMap<>())
+                            .put(resultSet.getLong("book_id"), resultSet.getLong("id"));
+                });
+        return itemIds;
+    }
+
+    public Optional<CartBook> findBook(Long bookId) {
+        return jdbcTemplate.getJdbcTemplate().query(FIND_BOOK,
+                (resultSet, rowNumber) -> new CartBook(resultSet.getString("title"),
+                        resultSet.getBigDecimal("price")), bookId).stream()
+                .findFirst();
+    }
+
+    public Set<Long> findLiveBookIds(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(FIND_LIVE_BOOK_IDS,
+                Map.of("bookIds", bookIds), Long.class));
+    }
+
+    @Transactional
+    public void writeAll(Collection<CartMutation> mutations, int batchSize) {
+        List<CartMutation> additions = mutations.stream()
+                .filter(mutation -> mutation.type() == CartMutation.Type.ADD)
+                .toList();
+        List<CartMutation> sets = mutations.stream()
+                .filter(mutation -> mutation.type() == CartMutation.Type.SET)
+                .toList();
+        List<CartMutation> removals = mutations.stream()
+                .filter(mutation -> mutation.type() == CartMutation.Type.REMOVE)
+                .toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(ADD_QUANTITY, additions, batchSize,
+                (statement, mutation) -> {
+                    statement.setLong(1, mutation.shoppingCartId());
+                    statement.setLong(2, mutation.bookId());
+                    statement.setInt(3, mutation.quantity());
+                });
+        jdbcTemplate.getJdbcTemplate().batchUpdate(SET_QUANTITY, sets, batchSize,
+                (statement, mutation) -> {
+                    statement.setLong(1, mutation.shoppingCartId());
+                    statement.setLong(2, mutation.bookId());
+                    statement.setInt(3, mutation.quantity());
+                });
+        jdbcTemplate.getJdbcTemplate().batchUpdate(REMOVE, removals, batchSize,
+                (statement, mutation) -> {
+                    statement.setLong(1, mutation.shoppingCartId());
+                    statement.setLong(2, mutation.bookId());
+                });
+    }
+}
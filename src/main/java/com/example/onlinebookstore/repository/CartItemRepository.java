@@ -1,7 +1,38 @@
 package com.example.onlinebookstore.repository;
 
+import com.example.onlinebookstore.dto.cartitem.CartItemDto;
 import com.example.onlinebookstore.model.CartItem;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    String OWNED_BY_USER = "ci.id = :id AND ci.isDeleted = false AND ci.shoppingCart.id = "
+            + "(SELECT c.id FROM ShoppingCart c WHERE c.user.id = :userId)";
+
+    @Query("SELECT new com.example.onlinebookstore.dto.cartitem.CartItemDto("
+            + "ci.id, b.id, b.title, ci.quantity) FROM CartItem ci JOIN ci.book b WHERE "
+            + OWNED_BY_USER)
+    Optional<CartItemDto> findDtoByIdAndUserId(Long id, Long userId);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.quantity = :quantity, ci.version = ci.version + 1 "
+            + "WHERE " + OWNED_BY_USER)
+    int updateQuantity(Long id, Long userId, int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE cart_items SET is_deleted = true, deleted_at = CURRENT_TIMESTAMP(6), "
+            + "version = version + 1 WHERE id = :id AND is_deleted = false AND shopping_cart_id = "
+            + "(SELECT c.id FROM shopping_carts c WHERE c.user_id = :userId)",
+            nativeQuery = true)
+    int softDelete(Long id, Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (shopping_cart_id, book_id, quantity) "
+            + "VALUES (:shoppingCartId, :bookId, :quantity) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), "
+            + "version = version + 1",
+            nativeQuery = true)
+    int upsert(Long shoppingCartId, Long bookId, int quantity);
 }
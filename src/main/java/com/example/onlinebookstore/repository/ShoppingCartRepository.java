@@ -1,9 +1,78 @@
 package com.example.onlinebookstore.repository;
 
+import com.example.onlinebookstore.dto.cart.CartSummaryDto;
 import com.example.onlinebookstore.model.ShoppingCart;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
+    String ITEM_QUANTITY = "(SELECT ci.quantity FROM cart_items ci WHERE ci.id = :id) ";
+    String ITEM_PRICE = "(SELECT b.price FROM cart_items ci JOIN books b ON b.id = ci.book_id "
+            + "WHERE ci.id = :id) ";
+    String OWNS_ITEM = "WHERE user_id = :userId AND is_deleted = false AND id = "
+            + "(SELECT ci.shopping_cart_id FROM cart_items ci "
+            + "WHERE ci.id = :id AND ci.is_deleted = false)";
+    String RECALCULATE_TOTALS = "UPDATE shopping_carts SET version = version + 1, "
+            + "item_count = (SELECT COALESCE(SUM(ci.quantity), 0) FROM cart_items ci "
+            + "WHERE ci.shopping_cart_id = shopping_carts.id AND ci.is_deleted = false), "
+            + "total = (SELECT COALESCE(SUM(ci.quantity * b.price), 0) FROM cart_items ci "
+            + "JOIN books b ON b.id = ci.book_id "
+            + "WHERE ci.shopping_cart_id = shopping_carts.id AND ci.is_deleted = false) ";
+
     Optional<ShoppingCart> findByUserId(Long userId);
+
+    @Query("SELECT c.id FROM ShoppingCart c WHERE c.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+
+    @Query(value = "SELECT id FROM shopping_carts WHERE user_id = :userId AND is_deleted = false "
+            + "FOR UPDATE", nativeQuery = true)
+    Optional<Long> findIdByUserIdForUpdate(Long userId);
+
+    @Query("SELECT new com.example.onlinebookstore.dto.cart.CartSummaryDto("
+            + "c.id, c.itemCount, c.total) FROM ShoppingCart c WHERE c.user.id = :userId")
+    Optional<CartSummaryDto> findSummaryByUserId(Long userId);
+
+    @Query(value = "SELECT DISTINCT shopping_cart_id FROM cart_items "
+            + "WHERE book_id = :bookId AND is_deleted = false AND shopping_cart_id > :afterId "
+            + "ORDER BY shopping_cart_id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsByBookId(Long bookId, Long afterId, int limit);
+
+    @Modifying
+    @Query(value = "UPDATE shopping_carts SET version = version + 1, "
+            + "item_count = item_count + :quantity, "
+            + "total = total + :quantity * (SELECT b.price FROM books b WHERE b.id = :bookId) "
+            + "WHERE id = :shoppingCartId AND EXISTS "
+            + "(SELECT b.id FROM books b WHERE b.id = :bookId AND b.is_deleted = false)",
+            nativeQuery = true)
+    int addToTotals(Long shoppingCartId, Long bookId, int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE shopping_carts SET version = version + 1, "
+            + "item_count = item_count + :quantity - " + ITEM_QUANTITY + ", "
+            + "total = total + (:quantity - " + ITEM_QUANTITY + ") * " + ITEM_PRICE
+            + OWNS_ITEM, nativeQuery = true)
+    int changeItemQuantityInTotals(Long id, Long userId, int quantity);
+
+    @Modifying
+    @Query(value = "UPDATE shopping_carts SET version = version + 1, "
+            + "item_count = item_count - " + ITEM_QUANTITY + ", "
+            + "total = total - " + ITEM_QUANTITY + " * " + ITEM_PRICE
+            + OWNS_ITEM, nativeQuery = true)
+    int removeItemFromTotals(Long id, Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE shopping_carts SET item_count = 0, total = 0, version = version + 1 "
+            + "WHERE id = :id AND version = :version", nativeQuery = true)
+    int resetTotals(Long id, Long version);
+
+    @Transactional
+    @Modifying
+    @Query(value = RECALCULATE_TOTALS + "WHERE id IN (:ids)", nativeQuery = true)
+    void recalculateTotals(Collection<Long> ids);
+
 }
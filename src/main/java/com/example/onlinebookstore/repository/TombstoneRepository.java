@@ -0,0 +1,42 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.compaction.TombstoneTable;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class TombstoneRepository {
+    private static final String FIND_EXPIRED = "SELECT t.id FROM %s t "
+            + "WHERE t.deleted_at < TIMESTAMPADD(SECOND, :offsetSeconds, CURRENT_TIMESTAMP(6)) "
+            + "AND t.is_deleted = true%s ORDER BY t.deleted_at LIMIT :limit";
+    private static final String DELETE = "DELETE FROM %s WHERE id IN (:ids) "
+            + "AND is_deleted = true%s";
+    private static final String NOT_REFERENCED = " AND NOT EXISTS "
+            + "(SELECT r.id FROM %s r WHERE r.%s = %s.id)";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<Long> findExpiredIds(TombstoneTable table, Duration retention, int limit) {
+        String sql = FIND_EXPIRED.formatted(table.getTableName(), notReferenced(table, "t"));
+        return jdbcTemplate.queryForList(sql, Map.of(
+                "offsetSeconds", -retention.toSeconds(),
+                "limit", limit), Long.class);
+    }
+
+    public int delete(TombstoneTable table, List<Long> ids) {
+        String sql = DELETE.formatted(table.getTableName(),
+                notReferenced(table, table.getTableName()));
+        return jdbcTemplate.update(sql, Map.of("ids", ids));
+    }
+
+    private String notReferenced(TombstoneTable table, String alias) {
+        return table.getReferencingTable() == null
+                ? ""
+                : NOT_REFERENCED.formatted(table.getReferencingTable(),
+                        table.getReferencingColumn(), alias);
+    }
+}
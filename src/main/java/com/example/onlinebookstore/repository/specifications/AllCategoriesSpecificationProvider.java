@@ -0,0 +1,28 @@
+package com.example.onlinebookstore.repository.specifications;
+
+import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.repository.SpecificationProvider;
+import com.example.onlinebookstore.search.CategoryBitmapIndex;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class AllCategoriesSpecificationProvider implements SpecificationProvider<Book> {
+    private static final String CATEGORY_IDS = "allCategoryIds";
+    private final CategoryBitmapIndex categoryBitmapIndex;
+
+    @Override
+    public String getKey() {
+        return CATEGORY_IDS;
+    }
+
+    @Override
+    public Specification<Book> getSpecification(String[] params) {
+        List<Long> ids = CategoryBitmapIndex.parseIds(params);
+        return CategorySpecifications.inAllCategories(ids,
+                categoryBitmapIndex.filter(null, ids));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.onlinebookstore.repository.specifications;
+
+import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.model.Category;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.List;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.jpa.domain.Specification;
+
+final class CategorySpecifications {
+    private static final int MAX_IN_LIST_SIZE = 1000;
+    private static final String ID = "id";
+    private static final String CATEGORIES = "categories";
+
+    private CategorySpecifications() {
+    }
+
+    static Specification<Book> inAnyCategory(List<Long> categoryIds, RoaringBitmap books) {
+        if (books != null && books.getCardinality() > MAX_IN_LIST_SIZE) {
+            return (root, query, criteriaBuilder) ->
+                    criteriaBuilder.exists(inCategories(root, query, categoryIds));
+        }
+        return inBooks(books);
+    }
+
+    static Specification<Book> inAllCategories(List<Long> categoryIds, RoaringBitmap books) {
+        if (books != null && books.getCardinality() > MAX_IN_LIST_SIZE) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.and(categoryIds.stream()
+                    .map(id -> criteriaBuilder.exists(inCategories(root, query, List.of(id))))
+                    .toArray(Predicate[]::new));
+        }
+        return inBooks(books);
+    }
+
+    private static Specification<Book> inBooks(RoaringBitmap books) {
+        if (books == null) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+        }
+        List<Long> ids = books.stream().mapToObj(Long::valueOf).toList();
+        return (root, query, criteriaBuilder) -> ids.isEmpty()
+                ? criteriaBuilder.disjunction()
+                : root.get(ID).in(ids);
+    }
+
+    private static Subquery<Long> inCategories(Root<Book> root, CriteriaQuery<?> query,
+                                               List<Long> categoryIds) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Join<Book, Category> category = subquery.correlate(root).join(CATEGORIES);
+        return subquery.select(category.get(ID)).where(category.get(ID).in(categoryIds));
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.onlinebookstore.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+    int maxAttempts() default 3;
+
+    long backoffMillis() default 50;
+
+    double multiplier() default 2;
+}
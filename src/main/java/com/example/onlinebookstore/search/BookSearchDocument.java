@@ -0,0 +1,14 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.model.Book;
+
+public record BookSearchDocument(Long id, String title, String isbn, String description) {
+    public static BookSearchDocument of(Book book) {
+        return new BookSearchDocument(
+                book.getId(),
+                book.getTitle(),
+                book.getIsbn(),
+                book.getDescription()
+        );
+    }
+}
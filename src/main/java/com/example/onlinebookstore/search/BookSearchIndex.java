@@ -0,0 +1,226 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.repository.BookRepository;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+    public static final int MAX_HITS = 1000;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 200;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MIN_TWO_TYPOS_LENGTH = 8;
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float ISBN_WEIGHT = 5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float TYPO_FACTOR = 0.4f;
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private NavigableSet<String> terms = new TreeSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<String, Map<Long, Float>> newPostings = new HashMap<>();
+        Map<Long, Set<String>> newDocumentTerms = new HashMap<>();
+        long lastId = 0;
+        List<BookSearchDocument> batch;
+        do {
+            batch = bookRepository.findSearchDocumentsAfter(lastId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (BookSearchDocument document : batch) {
+                addDocument(document, newPostings, newDocumentTerms);
+                lastId = document.id();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documentTerms = newDocumentTerms;
+            terms = new TreeSet<>(newPostings.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book search index rebuilt: {} books, {} terms",
+                newDocumentTerms.size(), newPostings.size());
+    }
+
+    public void index(BookSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(document.id());
+            addDocument(document, postings, documentTerms);
+            terms.addAll(documentTerms.get(document.id()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        return score(query).entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public Set<Long> match(String query) {
+        return score(query).keySet();
+    }
+
+    private Map<Long, Float> score(String query) {
+        List<String> queryTokens = SearchTokenizer.tokenizeQuery(query);
+        if (queryTokens.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : queryTokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Float> previous = scores;
+                    tokenScores.keySet().retainAll(previous.keySet());
+                    tokenScores.replaceAll((id, score) -> score + previous.get(id));
+                    scores = tokenScores;
+                }
+                if (scores.isEmpty()) {
+                    return Map.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores;
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> tokenScores = new HashMap<>();
+        addMatches(tokenScores, token, 1f);
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            terms.subSet(token, false, token + Character.MAX_VALUE, false).stream()
+                    .limit(MAX_PREFIX_EXPANSIONS)
+                    .forEach(term -> addMatches(tokenScores, term, PREFIX_FACTOR
+                            * token.length() / term.length()));
+        }
+        if (token.length() >= MIN_TYPO_LENGTH) {
+            int maxTypos = token.length() >= MIN_TWO_TYPOS_LENGTH ? 2 : 1;
+            String firstLetter = token.substring(0, 1);
+            for (String term : terms.subSet(firstLetter, true,
+                    firstLetter + Character.MAX_VALUE, false)) {
+                if (!term.equals(token)
+                        && Math.abs(term.length() - token.length()) <= maxTypos
+                        && editDistance(token, term, maxTypos) <= maxTypos) {
+                    addMatches(tokenScores, term, TYPO_FACTOR);
+                }
+            }
+        }
+        return tokenScores;
+    }
+
+    private void addMatches(Map<Long, Float> tokenScores, String term, float factor) {
+        Map<Long, Float> postingList = postings.get(term);
+        if (postingList == null) {
+            return;
+        }
+        float idf = (float) Math.log(1 + (double) documentTerms.size() / postingList.size());
+        postingList.forEach((id, weight) ->
+                tokenScores.merge(id, weight * idf * factor, Math::max));
+    }
+
+    private void addDocument(BookSearchDocument document,
+                             Map<String, Map<Long, Float>> targetPostings,
+                             Map<Long, Set<String>> targetDocumentTerms) {
+        Map<String, Float> weights = new HashMap<>();
+        SearchTokenizer.tokenize(document.title())
+                .forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+        SearchTokenizer.tokenize(document.description())
+                .forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        String isbn = SearchTokenizer.normalizeIsbn(document.isbn());
+        if (!isbn.isEmpty()) {
+            weights.merge(isbn, ISBN_WEIGHT, Float::sum);
+        }
+        weights.forEach((term, weight) -> targetPostings
+                .computeIfAbsent(term, key -> new HashMap<>())
+                .put(document.id(), weight));
+        targetDocumentTerms.put(document.id(), weights.keySet());
+    }
+
+    private void removeDocument(Long id) {
+        Set<String> removedTerms = documentTerms.remove(id);
+        if (removedTerms == null) {
+            return;
+        }
+        for (String term : removedTerms) {
+            Map<Long, Float> postingList = postings.get(term);
+            postingList.remove(id);
+            if (postingList.isEmpty()) {
+                postings.remove(term);
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static int editDistance(String source, String target, int limit) {
+        int[] previousPrevious = new int[target.length() + 1];
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > limit) {
+                return rowMinimum;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[target.length()];
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.exception.InvalidSearchParameterException;
+import com.example.onlinebookstore.repository.BookBatchRepository;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryBitmapIndex {
+    private final BookBatchRepository bookBatchRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, RoaringBitmap> booksByCategory = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, RoaringBitmap> newBooksByCategory = new HashMap<>();
+        bookBatchRepository.forEachLiveCategoryLink((bookId, categoryId) -> newBooksByCategory
+                .computeIfAbsent(categoryId, id -> new RoaringBitmap())
+                .add(toBitmapId(bookId)));
+        newBooksByCategory.values().forEach(RoaringBitmap::runOptimize);
+
+        lock.writeLock().lock();
+        try {
+            booksByCategory = newBooksByCategory;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Category bitmap index rebuilt: {} categories", newBooksByCategory.size());
+    }
+
+    public void index(Long bookId, Collection<Long> categoryIds) {
+        int id = toBitmapId(bookId);
+        lock.writeLock().lock();
+        try {
+            booksByCategory.values().forEach(books -> books.remove(id));
+            if (categoryIds != null) {
+                categoryIds.forEach(categoryId -> booksByCategory
+                        .computeIfAbsent(categoryId, key -> new RoaringBitmap())
+                        .add(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        index(bookId, null);
+    }
+
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            booksByCategory.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public RoaringBitmap filter(Collection<Long> anyCategoryIds,
+                                Collection<Long> allCategoryIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap books = null;
+            if (anyCategoryIds != null && !anyCategoryIds.isEmpty()) {
+                books = FastAggregation.or(anyCategoryIds.stream()
+                        .map(this::booksOf)
+                        .iterator());
+            }
+            if (allCategoryIds != null && !allCategoryIds.isEmpty()) {
+                RoaringBitmap allBooks = FastAggregation.and(allCategoryIds.stream()
+                        .map(this::booksOf)
+                        .iterator());
+                books = books == null ? allBooks : RoaringBitmap.and(books, allBooks);
+            }
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, Long> facetCounts(RoaringBitmap books) {
+        Map<Long, Long> counts = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            booksByCategory.forEach((categoryId, categoryBooks) -> {
+                long count = books == null
+                        ? categoryBooks.getLongCardinality()
+                        : RoaringBitmap.andCardinality(categoryBooks, books);
+                if (count > 0) {
+                    counts.put(categoryId, count);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+
+    public static List<Long> parseIds(String[] params) {
+        if (params == null) {
+            return List.of();
+        }
+        try {
+            return Arrays.stream(params)
+                    .map(String::trim)
+                    .map(Long::valueOf)
+                    .toList();
+        } catch (NumberFormatException e) {
+            throw new InvalidSearchParameterException("Category ids must be numbers, but got "
+                    + Arrays.toString(params), e);
+        }
+    }
+
+    public static int toBitmapId(Long bookId) {
+        return Math.toIntExact(bookId);
+    }
+
+    private RoaringBitmap booksOf(Long categoryId) {
+        return booksByCategory.getOrDefault(categoryId, new RoaringBitmap());
+    }
+}
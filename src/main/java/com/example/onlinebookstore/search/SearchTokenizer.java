@@ -0,0 +1,50 @@
+package com.example.onlinebookstore.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class SearchTokenizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern ISBN_LIKE = Pattern.compile("[0-9Xx][0-9Xx\\- ]*");
+    private static final Pattern ISBN_SEPARATORS = Pattern.compile("[\\- ]");
+
+    private SearchTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> tokenizeQuery(String query) {
+        if (query != null && ISBN_LIKE.matcher(query.trim()).matches()
+                && query.chars().anyMatch(Character::isDigit)) {
+            return List.of(normalizeIsbn(query));
+        }
+        return tokenize(query);
+    }
+
+    public static String normalizeIsbn(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        return ISBN_SEPARATORS.matcher(isbn.trim()).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.onlinebookstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+final class TitleTrie {
+    static final int MAX_KEY_LENGTH = 64;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long[] NO_IDS = new long[0];
+    private final Map<Long, Double> popularity;
+    private final int topSize;
+    private final Comparator<Long> byPopularity;
+    private final Map<Long, String> titles = new HashMap<>();
+    private final Node root = new Node("");
+
+    TitleTrie(Map<Long, Double> popularity, int topSize) {
+        this.popularity = popularity;
+        this.topSize = topSize;
+        this.byPopularity = Comparator.<Long>comparingDouble(
+                id -> this.popularity.getOrDefault(id, 0.0)).reversed()
+                .thenComparing(Comparator.naturalOrder());
+    }
+
+    static String normalize(String text) {
+        String normalized = WHITESPACE.matcher(SearchTokenizer.normalize(text)).replaceAll(" ")
+                .stripLeading();
+        return normalized.length() > MAX_KEY_LENGTH
+                ? normalized.substring(0, MAX_KEY_LENGTH)
+                : normalized;
+    }
+
+    void put(Long id, String title) {
+        insert(id, title, false);
+    }
+
+    void computeTops() {
+        computeTopsBelow(root);
+    }
+
+    void add(Long id, String title) {
+        insert(id, title, true);
+    }
+
+    void remove(Long id) {
+        String title = titles.remove(id);
+        if (title == null) {
+            return;
+        }
+        for (String key : keys(title)) {
+            List<Node> path = pathTo(key);
+            if (path == null) {
+                continue;
+            }
+            Node node = path.get(path.size() - 1);
+            node.ids = without(node.ids, id);
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node current = path.get(i);
+                if (current.ids.length == 0 && current.children.length == 0) {
+                    path.get(i - 1).removeChild(current.label.charAt(0));
+                } else if (current.ids.length == 0 && current.children.length == 1) {
+                    Node child = current.children[0];
+                    child.label = current.label + child.label;
+                    path.get(i - 1).replaceChild(child);
+                } else {
+                    updateTop(current);
+                }
+            }
+            updateTop(root);
+        }
+    }
+
+    List<Long> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            Node child = node.child(key.charAt(offset));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefixLength(child.label, key, offset);
+            if (common < child.label.length() && offset + common < key.length()) {
+                return List.of();
+            }
+            offset += common;
+            node = child;
+        }
+        return Arrays.stream(top(node))
+                .limit(Math.min(limit, topSize))
+                .boxed()
+                .toList();
+    }
+
+    String title(Long id) {
+        return titles.get(id);
+    }
+
+    int size() {
+        return titles.size();
+    }
+
+    private void insert(Long id, String title, boolean updateTops) {
+        remove(id);
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        titles.put(id, title);
+        for (String key : keys(title)) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int offset = 0;
+            while (offset < key.length()) {
+                Node child = node.child(key.charAt(offset));
+                if (child == null) {
+                    child = new Node(key.substring(offset));
+                    node.addChild(child);
+                } else {
+                    int common = commonPrefixLength(child.label, key, offset);
+                    if (common < child.label.length()) {
+                        Node split = new Node(child.label.substring(0, common));
+                        node.replaceChild(split);
+                        child.label = child.label.substring(common);
+                        split.addChild(child);
+                        child = split;
+                    }
+                }
+                offset += child.label.length();
+                node = child;
+                path.add(node);
+            }
+            node.ids = with(node.ids, id);
+            if (updateTops) {
+                for (int i = path.size() - 1; i >= 0; i--) {
+                    updateTop(path.get(i));
+                }
+            }
+        }
+    }
+
+    private List<Node> pathTo(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int offset = 0;
+        while (offset < key.length()) {
+            node = node.child(key.charAt(offset));
+            if (node == null || !key.startsWith(node.label, offset)) {
+                return null;
+            }
+            offset += node.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    private Set<String> keys(String title) {
+        String normalized = WHITESPACE.matcher(SearchTokenizer.normalize(title)).replaceAll(" ")
+                .strip();
+        Set<String> keys = new LinkedHashSet<>();
+        for (int start = 0; start < normalized.length(); start++) {
+            if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                keys.add(normalized.substring(start,
+                        Math.min(normalized.length(), start + MAX_KEY_LENGTH)));
+            }
+        }
+        return keys;
+    }
+
+    private void computeTopsBelow(Node node) {
+        for (Node child : node.children) {
+            computeTopsBelow(child);
+        }
+        updateTop(node);
+    }
+
+    private void updateTop(Node node) {
+        node.top = node.children.length == 0 ? NO_IDS : topOf(node);
+    }
+
+    private long[] top(Node node) {
+        return node.children.length == 0 ? node.ids : node.top;
+    }
+
+    private long[] topOf(Node node) {
+        Set<Long> candidates = new HashSet<>();
+        for (int i = 0; i < node.ids.length && i < topSize; i++) {
+            candidates.add(node.ids[i]);
+        }
+        for (Node child : node.children) {
+            long[] childTop = top(child);
+            for (int i = 0; i < childTop.length && i < topSize; i++) {
+                candidates.add(childTop[i]);
+            }
+        }
+        return candidates.stream()
+                .sorted(byPopularity)
+                .limit(topSize)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    private long[] with(long[] ids, long id) {
+        int insertAt = 0;
+        while (insertAt < ids.length && byPopularity.compare(ids[insertAt], id) <= 0) {
+            insertAt++;
+        }
+        long[] extended = new long[ids.length + 1];
+        System.arraycopy(ids, 0, extended, 0, insertAt);
+        extended[insertAt] = id;
+        System.arraycopy(ids, insertAt, extended, insertAt + 1, ids.length - insertAt);
+        return extended;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        return ids.length == 1 && ids[0] == id
+                ? NO_IDS
+                : Arrays.stream(ids).filter(existing -> existing != id).toArray();
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int common = 0;
+        while (common < length && label.charAt(common) == key.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    private static final class Node {
+        private String label;
+        private Node[] children = new Node[0];
+        private long[] ids = NO_IDS;
+        private long[] top = NO_IDS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            int index = indexOf(first);
+            return index < 0 ? null : children[index];
+        }
+
+        private void addChild(Node child) {
+            int insertAt = -indexOf(child.label.charAt(0)) - 1;
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newChildren[insertAt] = child;
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1,
+                    children.length - insertAt);
+            children = newChildren;
+        }
+
+        private void replaceChild(Node child) {
+            children[indexOf(child.label.charAt(0))] = child;
+        }
+
+        private void removeChild(char first) {
+            int index = indexOf(first);
+            if (index < 0) {
+                return;
+            }
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            children = newChildren;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char label = children[middle].label.charAt(0);
+                if (label < first) {
+                    low = middle + 1;
+                } else if (label > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+    }
+}
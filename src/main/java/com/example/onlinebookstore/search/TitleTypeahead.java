@@ -0,0 +1,105 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.dto.book.BookSuggestionDto;
+import com.example.onlinebookstore.ranking.BookRankings;
+import com.example.onlinebookstore.repository.BookRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TitleTypeahead {
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private final BookRepository bookRepository;
+    private final BookRankings bookRankings;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TitleTrie trie = new TitleTrie(Map.of(), MAX_SUGGESTIONS);
+    private List<Consumer<TitleTrie>> pendingUpdates;
+
+    @Scheduled(fixedDelayString = "${book.typeahead.rebuild-interval}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TitleTrie newTrie = new TitleTrie(bookRankings.getPopularity(), MAX_SUGGESTIONS);
+        try {
+            long lastId = 0;
+            List<BookSearchDocument> batch;
+            do {
+                batch = bookRepository.findSearchDocumentsAfter(lastId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (BookSearchDocument document : batch) {
+                    newTrie.put(document.id(), document.title());
+                    lastId = document.id();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            newTrie.computeTops();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingUpdates = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingUpdates.forEach(update -> update.accept(newTrie));
+            pendingUpdates = null;
+            trie = newTrie;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Title typeahead rebuilt: {} books", newTrie.size());
+    }
+
+    public void index(Long id, String title) {
+        update(target -> target.add(id, title));
+    }
+
+    public void remove(Long id) {
+        update(target -> target.remove(id));
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.complete(prefix, Math.min(limit, MAX_SUGGESTIONS)).stream()
+                    .map(id -> new BookSuggestionDto(id, trie.title(id)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Consumer<TitleTrie> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(trie);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
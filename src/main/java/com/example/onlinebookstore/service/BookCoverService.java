@@ -0,0 +1,12 @@
+package com.example.onlinebookstore.service;
+
+import com.example.onlinebookstore.cover.CoverImage;
+import com.example.onlinebookstore.dto.book.BookDto;
+import java.io.InputStream;
+import org.springframework.http.MediaType;
+
+public interface BookCoverService {
+    BookDto uploadCover(Long id, MediaType contentType, InputStream inputStream);
+
+    CoverImage getCover(Long id, Integer width);
+}
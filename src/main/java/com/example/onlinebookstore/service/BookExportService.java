@@ -0,0 +1,9 @@
+package com.example.onlinebookstore.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface BookExportService {
+    void exportBooks(LocalDateTime changedSince, OutputStream outputStream) throws IOException;
+}
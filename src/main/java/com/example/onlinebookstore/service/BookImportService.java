@@ -0,0 +1,9 @@
+package com.example.onlinebookstore.service;
+
+import com.example.onlinebookstore.bookimport.BookImportFormat;
+import com.example.onlinebookstore.dto.book.BookImportReportDto;
+import java.io.InputStream;
+
+public interface BookImportService {
+    BookImportReportDto importBooks(InputStream inputStream, BookImportFormat format);
+}
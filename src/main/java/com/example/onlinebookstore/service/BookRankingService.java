@@ -0,0 +1,9 @@
+package com.example.onlinebookstore.service;
+
+import com.example.onlinebookstore.dto.book.BookDto;
+import com.example.onlinebookstore.ranking.RankingType;
+import java.util.List;
+
+public interface BookRankingService {
+    List<BookDto> getTopBooks(RankingType type, Integer limit);
+}
@@ -3,22 +3,51 @@ package com.example.onlinebookstore.service;
 import com.example.onlinebookstore.dto.book.BookDto;
 import com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.onlinebookstore.dto.book.BookSearchParametersDto;
+import com.example.onlinebookstore.dto.book.BookSuggestionDto;
 import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.example.onlinebookstore.dto.page.CursorPageDto;
+import com.example.onlinebookstore.dto.page.CursorPageRequestDto;
 import java.util.List;
+import java.util.Map;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface BookService {
     BookDto save(CreateBookRequestDto requestDto);
 
     List<BookDto> findAll(Pageable pageable);
 
+    CursorPageDto<BookDto> findAll(CursorPageRequestDto cursorRequest);
+
     BookDto getById(Long id);
 
+    void recordView(Long id);
+
+    List<BookDto> findAllById(List<Long> ids);
+
+    String getVersionTag(Long id);
+
+    String getVersionTag(Pageable pageable);
+
+    String getCategoryBooksVersionTag(Long categoryId);
+
     void deleteById(Long id);
 
     BookDto update(Long id, CreateBookRequestDto bookDto);
 
-    List<BookDto> search(BookSearchParametersDto searchParameters);
+    List<BookSuggestionDto> suggestTitles(String prefix, Integer limit);
+
+    Slice<BookDto> search(BookSearchParametersDto searchParameters, Pageable pageable);
+
+    CursorPageDto<BookDto> search(BookSearchParametersDto searchParameters,
+                                  CursorPageRequestDto cursorRequest);
+
+    Map<Long, Long> getCategoryFacets(BookSearchParametersDto searchParameters);
 
     List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id);
+
+    CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryId(
+            Long id,
+            CursorPageRequestDto cursorRequest
+    );
 }
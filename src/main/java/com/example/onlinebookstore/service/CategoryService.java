@@ -10,6 +10,10 @@ public interface CategoryService {
 
     CategoryResponseDto getById(Long id);
 
+    String getVersionTag(Long id);
+
+    String getVersionTag(Pageable pageable);
+
     CategoryResponseDto save(CreateCategoryRequestDto categoryDto);
 
     CategoryResponseDto update(Long id, CreateCategoryRequestDto categoryDto);
@@ -1,9 +1,13 @@
 package com.example.onlinebookstore.service;
 
 import com.example.onlinebookstore.dto.cart.AddBookRequestDto;
+import com.example.onlinebookstore.dto.cart.CartBatchResponseDto;
+import com.example.onlinebookstore.dto.cart.CartOperationDto;
 import com.example.onlinebookstore.dto.cart.CartResponseDto;
+import com.example.onlinebookstore.dto.cart.CartSummaryDto;
 import com.example.onlinebookstore.dto.cartitem.CartItemDto;
 import com.example.onlinebookstore.dto.cartitem.UpdateQuantityRequestDto;
+import java.util.List;
 
 public interface ShoppingCartService {
     CartResponseDto getShoppingCart(Long userId);
@@ -13,4 +17,10 @@ public interface ShoppingCartService {
     CartItemDto updateCartItem(Long userId, Long id, UpdateQuantityRequestDto updateDto);
 
     void deleteOrder(Long userId, Long id);
+
+    CartBatchResponseDto applyBatch(Long userId, List<CartOperationDto> operations);
+
+    CartSummaryDto getSummary(Long userId);
+
+    void repriceBook(Long bookId);
 }
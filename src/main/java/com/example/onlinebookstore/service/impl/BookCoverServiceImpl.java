@@ -0,0 +1,145 @@
+package com.example.onlinebookstore.service.impl;
+
+import com.example.onlinebookstore.config.CacheConfig;
+import com.example.onlinebookstore.cover.CoverFormat;
+import com.example.onlinebookstore.cover.CoverImage;
+import com.example.onlinebookstore.cover.ThumbnailCache;
+import com.example.onlinebookstore.dto.book.BookDto;
+import com.example.onlinebookstore.exception.EntityNotFoundException;
+import com.example.onlinebookstore.exception.InvalidCoverImageException;
+import com.example.onlinebookstore.mapper.BookMapper;
+import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.repository.BookRepository;
+import com.example.onlinebookstore.service.BookCoverService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+@Service
+@RequiredArgsConstructor
+public class BookCoverServiceImpl implements BookCoverService {
+    private static final Set<Integer> THUMBNAIL_WIDTHS = Set.of(100, 200, 400);
+    private static final String COVER_URL = "/api/books/%d/cover";
+    private static final int BUFFER_SIZE = 8192;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final ThumbnailCache thumbnailCache;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${book.covers.directory}")
+    private Path directory;
+    @Value("${book.covers.max-size}")
+    private DataSize maxSize;
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, key = "#id")
+    public BookDto uploadCover(Long id, MediaType contentType, InputStream inputStream) {
+        CoverFormat format = CoverFormat.of(contentType).orElseThrow(
+                () -> new InvalidCoverImageException("Supported cover formats are "
+                        + Arrays.toString(CoverFormat.values())));
+        if (!bookRepository.existsById(id)) {
+            throw new EntityNotFoundException("Cannot find a book by id " + id);
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "cover", ".tmp");
+            try {
+                copyLimited(inputStream, temporary);
+                checkDecodable(temporary, format);
+                final BookDto bookDto = transactionTemplate.execute(
+                        status -> setCoverImage(id));
+                Files.move(temporary, coverPath(id, format), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                for (CoverFormat otherFormat : CoverFormat.values()) {
+                    if (otherFormat != format) {
+                        Files.deleteIfExists(coverPath(id, otherFormat));
+                    }
+                }
+                thumbnailCache.evict(id);
+                return bookDto;
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't store the cover of book " + id, e);
+        }
+    }
+
+    @Override
+    public CoverImage getCover(Long id, Integer width) {
+        if (width != null && !THUMBNAIL_WIDTHS.contains(width)) {
+            throw new InvalidCoverImageException("Supported thumbnail widths are "
+                    + THUMBNAIL_WIDTHS);
+        }
+        CoverFormat format = findCoverFormat(id).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a cover of book " + id));
+        Path cover = coverPath(id, format);
+        Path image = width == null ? cover : thumbnailCache.get(cover, format, id, width);
+        return CoverImage.of(image, format.getMediaType());
+    }
+
+    private BookDto setCoverImage(Long id) {
+        Book book = bookRepository.findById(id).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a book by id " + id));
+        book.setCoverImage(String.format(COVER_URL, id));
+        return bookMapper.toDto(bookRepository.save(book));
+    }
+
+    private Optional<CoverFormat> findCoverFormat(Long id) {
+        return Arrays.stream(CoverFormat.values())
+                .filter(format -> Files.exists(coverPath(id, format)))
+                .findFirst();
+    }
+
+    private Path coverPath(Long id, CoverFormat format) {
+        return directory.resolve(id + "." + format.getExtension());
+    }
+
+    private void copyLimited(InputStream inputStream, Path target) throws IOException {
+        long limit = maxSize.toBytes();
+        long copied = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                copied += read;
+                if (copied > limit) {
+                    throw new InvalidCoverImageException("Cover images are limited to "
+                            + maxSize.toMegabytes() + " MB");
+                }
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        if (copied == 0) {
+            throw new InvalidCoverImageException("The cover image is empty");
+        }
+    }
+
+    private void checkDecodable(Path image, CoverFormat format) throws IOException {
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+            if (!readers.hasNext() || !Arrays.asList(readers.next().getOriginatingProvider()
+                    .getMIMETypes()).contains(format.getMediaType().toString())) {
+                throw new InvalidCoverImageException("The uploaded file is not a "
+                        + format + " image");
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.onlinebookstore.service.impl;
+
+import com.example.onlinebookstore.dto.book.BookExportDto;
+import com.example.onlinebookstore.repository.BookBatchRepository;
+import com.example.onlinebookstore.repository.BookExportRepository;
+import com.example.onlinebookstore.service.BookExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BookExportServiceImpl implements BookExportService {
+    private static final int CHUNK_SIZE = 500;
+    private static final byte LINE_SEPARATOR = '\n';
+    private final BookExportRepository bookExportRepository;
+    private final BookBatchRepository bookBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration changedSinceOverlap;
+
+    public BookExportServiceImpl(
+            BookExportRepository bookExportRepository,
+            BookBatchRepository bookBatchRepository,
+            ObjectMapper objectMapper,
+            @Value("${book.export.changed-since-overlap}") Duration changedSinceOverlap
+    ) {
+        this.bookExportRepository = bookExportRepository;
+        this.bookBatchRepository = bookBatchRepository;
+        this.objectMapper = objectMapper;
+        this.changedSinceOverlap = changedSinceOverlap;
+    }
+
+    @Override
+    public void exportBooks(LocalDateTime changedSince, OutputStream outputStream)
+            throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BookExportDto.class);
+        List<BookExportDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        try {
+            LocalDateTime changedFrom = changedSince == null
+                    ? null
+                    : changedSince.minus(changedSinceOverlap);
+            bookExportRepository.forEachBook(changedFrom, book -> {
+                chunk.add(book);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, writer, outputStream);
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, writer, outputStream);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
+    }
+
+    private void writeChunk(List<BookExportDto> chunk, ObjectWriter writer,
+                            OutputStream outputStream) {
+        Map<Long, List<Long>> categoryIds = bookBatchRepository.findCategoryIds(chunk.stream()
+                .map(BookExportDto::getId)
+                .toList());
+        try {
+            for (BookExportDto exportDto : chunk) {
+                exportDto.setCategoryIds(categoryIds.getOrDefault(exportDto.getId(), List.of()));
+                outputStream.write(writer.writeValueAsBytes(exportDto));
+                outputStream.write(LINE_SEPARATOR);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.onlinebookstore.service.impl;
+
+import com.example.onlinebookstore.bookimport.BookImportFormat;
+import com.example.onlinebookstore.bookimport.BookImportRow;
+import com.example.onlinebookstore.bookimport.BookRowReader;
+import com.example.onlinebookstore.bookimport.CsvBookRowReader;
+import com.example.onlinebookstore.bookimport.JsonLinesBookRowReader;
+import com.example.onlinebookstore.dto.book.BookImportReportDto;
+import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.example.onlinebookstore.dto.book.RejectedBookRowDto;
+import com.example.onlinebookstore.isbn.IsbnFilter;
+import com.example.onlinebookstore.model.Category;
+import com.example.onlinebookstore.repository.BookBatchRepository;
+import com.example.onlinebookstore.repository.CategoryRepository;
+import com.example.onlinebookstore.search.BookSearchDocument;
+import com.example.onlinebookstore.search.BookSearchIndex;
+import com.example.onlinebookstore.search.CategoryBitmapIndex;
+import com.example.onlinebookstore.search.TitleTypeahead;
+import com.example.onlinebookstore.service.BookImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+    private final BookBatchRepository bookBatchRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final TitleTypeahead titleTypeahead;
+    private final IsbnFilter isbnFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    @Value("${book.import.batch-size}")
+    private int batchSize;
+
+    @Override
+    public BookImportReportDto importBooks(InputStream inputStream, BookImportFormat format) {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        BookRowReader rowReader = format == BookImportFormat.CSV
+                ? new CsvBookRowReader(reader)
+                : new JsonLinesBookRowReader(reader, objectMapper.reader());
+        Set<Long> categoryIds = categoryRepository.findAll().stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
+        BookImportReportDto report = new BookImportReportDto();
+        List<BookImportRow> batch = new ArrayList<>(batchSize);
+        try {
+            for (BookImportRow row = rowReader.next(); row != null; row = rowReader.next()) {
+                String error = row.error() == null
+                        ? validate(row.book(), categoryIds)
+                        : row.error();
+                if (error != null) {
+                    reject(report, row.line(), error);
+                } else {
+                    batch.add(row);
+                }
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read the imported books", e);
+        }
+        writeBatch(batch, report);
+        log.info("Book import finished: {} imported, {} rejected",
+                report.getImported(), report.getRejected());
+        return report;
+    }
+
+    private String validate(CreateBookRequestDto book, Set<Long> categoryIds) {
+        Set<ConstraintViolation<CreateBookRequestDto>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (book.getCategoryIds() != null && !categoryIds.containsAll(book.getCategoryIds())) {
+            return "Unknown category ids " + book.getCategoryIds().stream()
+                    .filter(id -> !categoryIds.contains(id))
+                    .toList();
+        }
+        return null;
+    }
+
+    private void writeBatch(List<BookImportRow> batch, BookImportReportDto report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> existingIsbns = isbnFilter.findTaken(batch.stream()
+                .map(row -> row.book().getIsbn())
+                .toList());
+        Set<String> batchIsbns = new HashSet<>();
+        List<BookImportRow> accepted = new ArrayList<>(batch.size());
+        for (BookImportRow row : batch) {
+            String isbn = row.book().getIsbn();
+            if (existingIsbns.contains(isbn) || !batchIsbns.add(isbn)) {
+                reject(report, row.line(), "A book with isbn " + isbn + " already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<CreateBookRequestDto> books = accepted.stream()
+                .map(BookImportRow::book)
+                .toList();
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> bookBatchRepository.insertAll(books));
+        } catch (DataAccessException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Book import batch of {} rows failed: {}", books.size(), cause);
+            accepted.forEach(row -> reject(report, row.line(), "Batch failed: " + cause));
+            return;
+        }
+        for (int i = 0; i < books.size(); i++) {
+            CreateBookRequestDto book = books.get(i);
+            bookSearchIndex.index(new BookSearchDocument(ids.get(i), book.getTitle(),
+                    book.getIsbn(), book.getDescription()));
+            categoryBitmapIndex.index(ids.get(i), book.getCategoryIds());
+            titleTypeahead.index(ids.get(i), book.getTitle());
+            isbnFilter.add(book.getIsbn());
+        }
+        report.setImported(report.getImported() + books.size());
+    }
+
+    private void reject(BookImportReportDto report, int line, String error) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getRejectedRows().size() < MAX_REPORTED_REJECTIONS) {
+            report.getRejectedRows().add(new RejectedBookRowDto(line, error));
+        }
+    }
+}
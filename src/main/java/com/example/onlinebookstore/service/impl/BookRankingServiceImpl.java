@@ -0,0 +1,42 @@
+package com.example.onlinebookstore.service.impl;
+
+import com.example.onlinebookstore.dto.book.BookDto;
+import com.example.onlinebookstore.mapper.BookMapper;
+import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.ranking.BookRankings;
+import com.example.onlinebookstore.ranking.RankingType;
+import com.example.onlinebookstore.repository.BookRepository;
+import com.example.onlinebookstore.service.BookRankingService;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class BookRankingServiceImpl implements BookRankingService {
+    private static final int DEFAULT_LIMIT = 10;
+    private final BookRankings bookRankings;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookDto> getTopBooks(RankingType type, Integer limit) {
+        int size = limit == null
+                ? DEFAULT_LIMIT
+                : Math.max(1, Math.min(limit, bookRankings.getTopSize()));
+        List<Long> bookIds = bookRankings.getTop(type, size);
+        Map<Long, Book> books = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return bookIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(bookMapper::toDto)
+                .toList();
+    }
+}
@@ -1,82 +1,398 @@
 package com.example.onlinebookstore.service.impl;
 
+import com.example.onlinebookstore.config.CacheConfig;
 import com.example.onlinebookstore.dto.book.BookDto;
 import com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.onlinebookstore.dto.book.BookSearchParametersDto;
+import com.example.onlinebookstore.dto.book.BookSuggestionDto;
 import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.example.onlinebookstore.dto.page.CursorPageDto;
+import com.example.onlinebookstore.dto.page.CursorPageRequestDto;
+import com.example.onlinebookstore.exception.BatchTooLargeException;
+import com.example.onlinebookstore.exception.DuplicateIsbnException;
 import com.example.onlinebookstore.exception.EntityNotFoundException;
+import com.example.onlinebookstore.exception.ResultWindowTooLargeException;
+import com.example.onlinebookstore.isbn.IsbnFilter;
 import com.example.onlinebookstore.mapper.BookMapper;
 import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.pagination.KeysetCursor;
+import com.example.onlinebookstore.ranking.BookActivityCounters;
+import com.example.onlinebookstore.ranking.BookRankings;
 import com.example.onlinebookstore.repository.BookRepository;
 import com.example.onlinebookstore.repository.BookSpecificationBuilder;
+import com.example.onlinebookstore.search.BookSearchDocument;
+import com.example.onlinebookstore.search.BookSearchIndex;
+import com.example.onlinebookstore.search.CategoryBitmapIndex;
+import com.example.onlinebookstore.search.TitleTypeahead;
 import com.example.onlinebookstore.service.BookService;
+import com.example.onlinebookstore.service.ShoppingCartService;
+import com.example.onlinebookstore.version.EntityVersion;
+import com.example.onlinebookstore.version.VersionTags;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class BookServiceImpl implements BookService {
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String ID = "id";
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilder bookSpecificationBuilder;
+    private final BookSearchIndex bookSearchIndex;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final TitleTypeahead titleTypeahead;
+    private final IsbnFilter isbnFilter;
+    private final BookActivityCounters bookActivityCounters;
+    private final BookRankings bookRankings;
+    private final ShoppingCartService shoppingCartService;
+    private final Cache booksCache;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int maxResultWindow;
 
     @Autowired
     public BookServiceImpl(BookRepository bookRepository, BookMapper bookMapper,
-                           BookSpecificationBuilder bookSpecificationBuilder) {
+                           BookSpecificationBuilder bookSpecificationBuilder,
+                           BookSearchIndex bookSearchIndex,
+                           CategoryBitmapIndex categoryBitmapIndex,
+                           TitleTypeahead titleTypeahead,
+                           IsbnFilter isbnFilter,
+                           BookActivityCounters bookActivityCounters,
+                           BookRankings bookRankings,
+                           ShoppingCartService shoppingCartService,
+                           CacheManager cacheManager,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${book.search.max-result-window}") int maxResultWindow) {
         this.bookRepository = bookRepository;
         this.bookMapper = bookMapper;
         this.bookSpecificationBuilder = bookSpecificationBuilder;
+        this.bookSearchIndex = bookSearchIndex;
+        this.categoryBitmapIndex = categoryBitmapIndex;
+        this.titleTypeahead = titleTypeahead;
+        this.isbnFilter = isbnFilter;
+        this.bookActivityCounters = bookActivityCounters;
+        this.bookRankings = bookRankings;
+        this.shoppingCartService = shoppingCartService;
+        this.booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.maxResultWindow = maxResultWindow;
     }
 
     @Override
+    @Transactional
     public BookDto save(CreateBookRequestDto requestDto) {
-        Book book = bookMapper.toModel(requestDto);
-        return bookMapper.toDto(bookRepository.save(book));
+        checkIsbn(requestDto.getIsbn(), null);
+        Book book = bookRepository.save(bookMapper.toModel(requestDto));
+        isbnFilter.add(book.getIsbn());
+        afterCommit(() -> {
+            bookSearchIndex.index(BookSearchDocument.of(book));
+            categoryBitmapIndex.index(book.getId(), requestDto.getCategoryIds());
+            titleTypeahead.index(book.getId(), book.getTitle());
+        });
+        return bookMapper.toDto(book);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookDto> findAll(Pageable pageable) {
         return bookRepository.findAll(pageable).stream()
                 .map(bookMapper::toDto)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> findAll(CursorPageRequestDto cursorRequest) {
+        KeysetCursor cursor = KeysetCursor.of(cursorRequest);
+        return cursor.toPage(scroll(Specification.where(null), cursor), bookMapper::toDto);
+    }
+
     @Override
     public BookDto getById(Long id) {
-        Book book = bookRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException("Cannot find a book by id " + id));
-        return bookMapper.toDto(book);
+        BookDto bookDto = getCachedBook(id).book();
+        recordView(id);
+        return bookDto;
+    }
+
+    @Override
+    public void recordView(Long id) {
+        bookActivityCounters.recordView(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookDto> findAllById(List<Long> ids) {
+        List<Long> requestedIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (requestedIds.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("Can't get more than " + MAX_BATCH_SIZE
+                    + " books at once");
+        }
+        Map<Long, BookDto> books = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            CachedBook cachedBook = booksCache.get(id, CachedBook.class);
+            if (cachedBook == null) {
+                missingIds.add(id);
+            } else {
+                books.put(id, cachedBook.book());
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Book book : bookRepository.findAllById(missingIds)) {
+                CachedBook cachedBook = toCachedBook(book);
+                booksCache.put(book.getId(), cachedBook);
+                books.put(book.getId(), cachedBook.book());
+            }
+        }
+        return requestedIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public String getVersionTag(Long id) {
+        return getCachedBook(id).versionTag();
+    }
+
+    @Override
+    public String getVersionTag(Pageable pageable) {
+        return VersionTags.of(bookRepository.findAllVersions(pageable));
+    }
+
+    @Override
+    public String getCategoryBooksVersionTag(Long categoryId) {
+        return VersionTags.of(bookRepository.findVersionsByCategoryId(categoryId));
     }
 
     @Override
     public void deleteById(Long id) {
         bookRepository.deleteById(id);
+        booksCache.evict(id);
+        bookSearchIndex.remove(id);
+        categoryBitmapIndex.remove(id);
+        titleTypeahead.remove(id);
+        bookRankings.remove(id);
     }
 
     @Override
+    @Transactional
     public BookDto update(Long id, CreateBookRequestDto bookDto) {
-        if (!bookRepository.existsById(id)) {
-            throw new EntityNotFoundException("No book was found with id " + id);
-        }
+        final BigDecimal oldPrice = bookRepository.findPriceById(id).orElseThrow(
+                () -> new EntityNotFoundException("No book was found with id " + id));
+        checkIsbn(bookDto.getIsbn(), id);
         Book book = bookMapper.toModel(bookDto);
         book.setId(id);
-        return bookMapper.toDto(bookRepository.save(book));
+        Book updatedBook = bookRepository.saveAndFlush(book);
+        isbnFilter.add(updatedBook.getIsbn());
+        boolean priceChanged = oldPrice.compareTo(updatedBook.getPrice()) != 0;
+        afterCommit(() -> {
+            booksCache.evict(id);
+            bookSearchIndex.index(BookSearchDocument.of(updatedBook));
+            categoryBitmapIndex.index(id, bookDto.getCategoryIds());
+            titleTypeahead.index(id, updatedBook.getTitle());
+            if (priceChanged) {
+                shoppingCartService.repriceBook(id);
+            }
+        });
+        return bookMapper.toDto(updatedBook);
     }
 
     @Override
-    public List<BookDto> search(BookSearchParametersDto searchParameters) {
-        Specification<Book> bookSpecification = bookSpecificationBuilder.build(searchParameters);
-        return bookRepository.findAll(bookSpecification).stream()
-                .map(bookMapper::toDto)
-                .toList();
+    public List<BookSuggestionDto> suggestTitles(String prefix, Integer limit) {
+        return titleTypeahead.suggest(prefix, limit == null
+                ? TitleTypeahead.MAX_SUGGESTIONS
+                : Math.max(1, limit));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Slice<BookDto> search(BookSearchParametersDto searchParameters, Pageable pageable) {
+        Pageable window = toSearchWindow(pageable);
+        List<Long> rankedIds = rankedIds(searchParameters);
+        if (rankedIds != null && window.getSort().isUnsorted()) {
+            RoaringBitmap books = filter(searchParameters);
+            List<Long> matchingIds = books == null
+                    ? rankedIds
+                    : rankedIds.stream()
+                            .filter(id -> books.contains(CategoryBitmapIndex.toBitmapId(id)))
+                            .toList();
+            int from = (int) Math.min(window.getOffset(), matchingIds.size());
+            int to = Math.min(from + window.getPageSize(), matchingIds.size());
+            return new SliceImpl<>(findAllById(matchingIds.subList(from, to)), window,
+                    matchingIds.size() > to);
+        }
+        Specification<Book> bookSpecification = toSpecification(searchParameters, rankedIds);
+        Sort sort = window.getSort().getOrderFor(ID) == null
+                ? window.getSort().and(Sort.by(ID))
+                : window.getSort();
+        Window<Book> books = bookRepository.findBy(bookSpecification, fluentQuery -> fluentQuery
+                .sortBy(sort)
+                .limit(window.getPageSize())
+                .scroll(ScrollPosition.offset(window.getOffset())));
+        return new SliceImpl<>(books.map(bookMapper::toDto).getContent(), window,
+                books.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> search(BookSearchParametersDto searchParameters,
+                                         CursorPageRequestDto cursorRequest) {
+        KeysetCursor cursor = KeysetCursor.of(cursorRequest);
+        Specification<Book> bookSpecification = toSpecification(searchParameters,
+                rankedIds(searchParameters));
+        return cursor.toPage(scroll(bookSpecification, cursor), bookMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getCategoryFacets(BookSearchParametersDto searchParameters) {
+        RoaringBitmap books = filter(searchParameters);
+        String query = searchParameters.query();
+        if (query != null && !query.isBlank()) {
+            RoaringBitmap hits = toBitmap(bookSearchIndex.match(query));
+            books = books == null ? hits : RoaringBitmap.and(books, hits);
+        }
+        return categoryBitmapIndex.facetCounts(books);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id) {
-        return bookRepository.findAllByCategoryId(id).stream()
-                .map(bookMapper::toDtoWithoutCategories)
-                .toList();
+        return bookRepository.findAllByCategoryId(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryId(
+            Long id,
+            CursorPageRequestDto cursorRequest
+    ) {
+        KeysetCursor cursor = KeysetCursor.of(cursorRequest);
+        return cursor.toPage(scroll(BookRepository.hasCategory(id), cursor),
+                bookMapper::toDtoWithoutCategories);
+    }
+
+    private void checkIsbn(String isbn, Long bookId) {
+        if (isbnFilter.isTaken(isbn, bookId)) {
+            throw new DuplicateIsbnException("A book with isbn " + isbn + " already exists");
+        }
+    }
+
+    private CachedBook getCachedBook(Long id) {
+        CachedBook cachedBook = booksCache.get(id, CachedBook.class);
+        if (cachedBook == null) {
+            cachedBook = readOnlyTransactionTemplate.execute(status -> toCachedBook(
+                    bookRepository.findById(id).orElseThrow(
+                            () -> new EntityNotFoundException("Cannot find a book by id " + id))));
+            booksCache.put(id, cachedBook);
+        }
+        return cachedBook;
+    }
+
+    private CachedBook toCachedBook(Book book) {
+        return new CachedBook(bookMapper.toDto(book),
+                VersionTags.of(new EntityVersion(book.getId(), book.getUpdatedAt())));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
+
+    private Pageable toSearchWindow(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return PageRequest.of(0, MAX_SEARCH_PAGE_SIZE);
+        }
+        Pageable window = pageable.getPageSize() > MAX_SEARCH_PAGE_SIZE
+                ? PageRequest.of(pageable.getPageNumber(), MAX_SEARCH_PAGE_SIZE, pageable.getSort())
+                : pageable;
+        if (window.getOffset() + window.getPageSize() > maxResultWindow) {
+            throw new ResultWindowTooLargeException("Search results are limited to the first "
+                    + maxResultWindow + " books. Narrow the search parameters or use "
+                    + "cursor pagination with the 'after' parameter");
+        }
+        return window;
+    }
+
+    private List<Long> rankedIds(BookSearchParametersDto searchParameters) {
+        String query = searchParameters.query();
+        return query == null || query.isBlank()
+                ? null
+                : bookSearchIndex.search(query, BookSearchIndex.MAX_HITS);
+    }
+
+    private Specification<Book> toSpecification(BookSearchParametersDto searchParameters,
+                                                List<Long> rankedIds) {
+        Specification<Book> bookSpecification = bookSpecificationBuilder.build(searchParameters);
+        return rankedIds == null
+                ? bookSpecification
+                : bookSpecification.and(BookRepository.hasIdIn(rankedIds));
+    }
+
+    private RoaringBitmap filter(BookSearchParametersDto searchParameters) {
+        if (isEmpty(searchParameters.titles()) && isEmpty(searchParameters.isbns())) {
+            return categoryBitmapIndex.filter(
+                    CategoryBitmapIndex.parseIds(searchParameters.categoryIds()),
+                    CategoryBitmapIndex.parseIds(searchParameters.allCategoryIds()));
+        }
+        return toBitmap(bookRepository.findIds(bookSpecificationBuilder.build(searchParameters)));
+    }
+
+    private static boolean isEmpty(String[] params) {
+        return params == null || params.length == 0;
+    }
+
+    private static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(CategoryBitmapIndex.toBitmapId(id)));
+        return bitmap;
+    }
+
+    private Window<Book> scroll(Specification<Book> specification, KeysetCursor cursor) {
+        return bookRepository.findBy(specification, query -> query
+                .sortBy(cursor.sort())
+                .limit(cursor.size())
+                .scroll(cursor.position()));
+    }
+
+    private record CachedBook(BookDto book, String versionTag) {
     }
 }
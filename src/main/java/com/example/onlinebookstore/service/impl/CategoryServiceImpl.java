@@ -1,40 +1,64 @@
 package com.example.onlinebookstore.service.impl;
 
+import com.example.onlinebookstore.config.CacheConfig;
 import com.example.onlinebookstore.dto.category.CategoryResponseDto;
 import com.example.onlinebookstore.dto.category.CreateCategoryRequestDto;
 import com.example.onlinebookstore.exception.EntityNotFoundException;
 import com.example.onlinebookstore.mapper.CategoryMapper;
 import com.example.onlinebookstore.model.Category;
+import com.example.onlinebookstore.repository.BookRepository;
 import com.example.onlinebookstore.repository.CategoryRepository;
+import com.example.onlinebookstore.search.CategoryBitmapIndex;
 import com.example.onlinebookstore.service.CategoryService;
+import com.example.onlinebookstore.version.VersionTags;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final BookRepository bookRepository;
+    private final CategoryBitmapIndex categoryBitmapIndex;
+    private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>();
 
     @Override
     public List<CategoryResponseDto> findAll(Pageable pageable) {
-        return categoryRepository.findAll(pageable).stream()
-                .map(categoryMapper::toDto)
+        return snapshot().page(pageable).stream()
+                .map(CategorySnapshot.Entry::dto)
                 .toList();
     }
 
     @Override
     public CategoryResponseDto getById(Long id) {
-        Category category = categoryRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException("Cannot find a category by id " + id));
-        return categoryMapper.toDto(category);
+        return getEntry(id).dto();
+    }
+
+    @Override
+    public String getVersionTag(Long id) {
+        return VersionTags.of(getEntry(id).version());
+    }
+
+    @Override
+    public String getVersionTag(Pageable pageable) {
+        return VersionTags.of(snapshot().page(pageable).stream()
+                .map(CategorySnapshot.Entry::version)
+                .toList());
     }
 
     @Override
     public CategoryResponseDto save(CreateCategoryRequestDto categoryDto) {
         Category category = categoryRepository.save(categoryMapper.toModel(categoryDto));
+        afterCommit(this::refresh);
         return categoryMapper.toDto(category);
     }
 
@@ -45,11 +69,54 @@ public class CategoryServiceImpl implements CategoryService {
         }
         Category category = categoryMapper.toModel(categoryDto);
         category.setId(id);
-        return categoryMapper.toDto(categoryRepository.save(category));
+        Category updatedCategory = categoryRepository.save(category);
+        afterCommit(this::refresh);
+        return categoryMapper.toDto(updatedCategory);
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOKS_CACHE, allEntries = true)
     public void deleteById(Long id) {
+        bookRepository.touchByCategoryId(id);
         categoryRepository.deleteById(id);
+        afterCommit(() -> {
+            refresh();
+            categoryBitmapIndex.removeCategory(id);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${category.snapshot.refresh-interval}",
+            initialDelayString = "${category.snapshot.refresh-interval}")
+    public synchronized void refresh() {
+        snapshot.set(new CategorySnapshot(categoryRepository.findAll(), categoryMapper::toDto));
+    }
+
+    private CategorySnapshot snapshot() {
+        CategorySnapshot current = snapshot.get();
+        if (current == null) {
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private CategorySnapshot.Entry getEntry(Long id) {
+        return snapshot().get(id).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a category by id " + id));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
     }
 }
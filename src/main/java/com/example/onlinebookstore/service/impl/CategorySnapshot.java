@@ -0,0 +1,58 @@
+package com.example.onlinebookstore.service.impl;
+
+import com.example.onlinebookstore.dto.category.CategoryResponseDto;
+import com.example.onlinebookstore.model.Category;
+import com.example.onlinebookstore.version.EntityVersion;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.support.PropertyComparator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+final class CategorySnapshot {
+    private final List<Entry> entries;
+    private final Map<Long, Entry> entriesById;
+
+    CategorySnapshot(List<Category> categories, Function<Category, CategoryResponseDto> mapper) {
+        entries = categories.stream()
+                .sorted(Comparator.comparing(Category::getId))
+                .map(category -> new Entry(mapper.apply(category),
+                        new EntityVersion(category.getId(), category.getUpdatedAt())))
+                .toList();
+        entriesById = entries.stream()
+                .collect(Collectors.toUnmodifiableMap(entry -> entry.version().id(),
+                        Function.identity()));
+    }
+
+    Optional<Entry> get(Long id) {
+        return Optional.ofNullable(entriesById.get(id));
+    }
+
+    List<Entry> page(Pageable pageable) {
+        Stream<Entry> page = entries.stream();
+        if (pageable.getSort().isSorted()) {
+            page = page.sorted(comparator(pageable.getSort()));
+        }
+        if (pageable.isPaged()) {
+            page = page.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return page.toList();
+    }
+
+    private static Comparator<Entry> comparator(Sort sort) {
+        Comparator<Entry> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            comparator = comparator.thenComparing(Entry::dto, new PropertyComparator<>(
+                    order.getProperty(), order.isIgnoreCase(), order.isAscending()));
+        }
+        return comparator;
+    }
+
+    record Entry(CategoryResponseDto dto, EntityVersion version) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.onlinebookstore.service.impl;
 
+import com.example.onlinebookstore.cart.WriteBehindCartStore;
 import com.example.onlinebookstore.dto.order.OrderRequestDto;
 import com.example.onlinebookstore.dto.order.OrderResponseDto;
 import com.example.onlinebookstore.dto.order.OrderUpdateDto;
@@ -10,11 +11,13 @@ import com.example.onlinebookstore.model.Order;
 import com.example.onlinebookstore.model.OrderItem;
 import com.example.onlinebookstore.model.ShoppingCart;
 import com.example.onlinebookstore.model.User;
+import com.example.onlinebookstore.ranking.BookActivityCounters;
 import com.example.onlinebookstore.repository.CartItemRepository;
 import com.example.onlinebookstore.repository.OrderItemRepository;
 import com.example.onlinebookstore.repository.OrderRepository;
 import com.example.onlinebookstore.repository.ShoppingCartRepository;
 import com.example.onlinebookstore.repository.UserRepository;
+import com.example.onlinebookstore.retry.RetryOnConflict;
 import com.example.onlinebookstore.service.OrderService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -23,7 +26,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -34,9 +42,14 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final OrderMapper orderMapper;
+    private final BookActivityCounters bookActivityCounters;
+    private final ObjectProvider<WriteBehindCartStore> writeBehindCartStore;
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public OrderResponseDto placeOrder(Long userId, OrderRequestDto requestDto) {
+        writeBehindCartStore.ifAvailable(cartStore -> cartStore.flushAndEvict(userId));
         ShoppingCart shoppingCart = shoppingCartRepository.findByUserId(userId).orElseThrow(
                 () -> new EntityNotFoundException("Cannot find a shopping cart of the user id "
                         + userId
@@ -53,11 +66,20 @@ public class OrderServiceImpl implements OrderService {
         Set<CartItem> cartItems = shoppingCart.getCartItems();
         Set<OrderItem> orderItems = getOrderItems(orderFromDb, cartItems);
         removeCartItems(cartItems);
+        if (shoppingCartRepository.resetTotals(shoppingCart.getId(),
+                shoppingCart.getVersion()) == 0) {
+            throw new OptimisticLockingFailureException("The shopping cart of the user id "
+                    + userId + " was changed while placing the order");
+        }
+        afterCommit(() -> orderItems.forEach(orderItem -> bookActivityCounters.recordSale(
+                orderItem.getBook().getId(), orderItem.getQuantity())));
         orderFromDb.setOrderItems(orderItems);
         return orderMapper.toDto(orderRepository.save(orderFromDb));
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public OrderResponseDto updateOrderStatus(Long id, OrderUpdateDto updateDto) {
         Optional<Order> orderOptional = orderRepository.findById(id);
         if (orderOptional.isEmpty()) {
@@ -69,6 +91,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderResponseDto> getAllOrders(Long userId) {
         List<Order> allOrders = orderRepository.findAllByUserId(userId);
         return allOrders.stream()
@@ -77,6 +100,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderResponseDto> getAllOrdersByStatus(String statusName) {
         Order.Status status = Order.Status.valueOf(statusName.toUpperCase());
         return orderRepository.findAllByStatus(status).stream()
@@ -102,4 +126,18 @@ public class OrderServiceImpl implements OrderService {
     private void removeCartItems(Set<CartItem> cartItems) {
         cartItems.forEach(e -> cartItemRepository.deleteById(e.getId()));
     }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
 }
@@ -1,77 +1,184 @@
 package com.example.onlinebookstore.service.impl;
 
+import com.example.onlinebookstore.cart.CartMutation;
 import com.example.onlinebookstore.dto.cart.AddBookRequestDto;
+import com.example.onlinebookstore.dto.cart.CartBatchResponseDto;
+import com.example.onlinebookstore.dto.cart.CartOperationDto;
+import com.example.onlinebookstore.dto.cart.CartOperationErrorDto;
 import com.example.onlinebookstore.dto.cart.CartResponseDto;
+import com.example.onlinebookstore.dto.cart.CartSummaryDto;
 import com.example.onlinebookstore.dto.cartitem.CartItemDto;
 import com.example.onlinebookstore.dto.cartitem.UpdateQuantityRequestDto;
+import com.example.onlinebookstore.exception.BatchTooLargeException;
 import com.example.onlinebookstore.exception.EntityNotFoundException;
-import com.example.onlinebookstore.mapper.CartItemMapper;
 import com.example.onlinebookstore.mapper.CartMapper;
-import com.example.onlinebookstore.model.Book;
-import com.example.onlinebookstore.model.CartItem;
 import com.example.onlinebookstore.model.ShoppingCart;
-import com.example.onlinebookstore.repository.BookRepository;
+import com.example.onlinebookstore.repository.CartItemBatchRepository;
 import com.example.onlinebookstore.repository.CartItemRepository;
 import com.example.onlinebookstore.repository.ShoppingCartRepository;
+import com.example.onlinebookstore.retry.RetryOnConflict;
 import com.example.onlinebookstore.service.ShoppingCartService;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class ShoppingCartServiceImpl implements ShoppingCartService {
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int WRITE_BATCH_SIZE = 500;
+    private static final int REPRICE_BATCH_SIZE = 500;
     private final ShoppingCartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    private final BookRepository bookRepository;
-    private final CartItemMapper cartItemMapper;
+    private final CartItemBatchRepository cartItemBatchRepository;
     private final CartMapper cartMapper;
 
     @Override
+    @Transactional(readOnly = true)
     public CartResponseDto getShoppingCart(Long userId) {
         return cartMapper.toDto(getShoppingCartByUserId(userId));
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public CartResponseDto addBook(Long userId, AddBookRequestDto addBookRequestDto) {
-        ShoppingCart shoppingCart = getShoppingCartByUserId(userId);
-
-        Book book = bookRepository.findById(addBookRequestDto.getBookId())
-                .orElseThrow(() ->
-                        new EntityNotFoundException("Cannot find a book by id "
-                                + addBookRequestDto.getBookId()));
-
-        CartItem cartItem = new CartItem();
-        cartItem.setShoppingCart(shoppingCart);
-        cartItem.setBook(book);
-        cartItem.setQuantity(addBookRequestDto.getQuantity());
-
-        CartItem cartItemFromDb = cartItemRepository.save(cartItem);
-
-        shoppingCart.getCartItems().add(cartItemFromDb);
-        return cartMapper.toDto(cartRepository.save(shoppingCart));
+        Long shoppingCartId = getShoppingCartIdByUserId(userId);
+        if (cartRepository.addToTotals(shoppingCartId, addBookRequestDto.getBookId(),
+                addBookRequestDto.getQuantity()) == 0) {
+            throw new EntityNotFoundException("Cannot find a book by id "
+                    + addBookRequestDto.getBookId());
+        }
+        cartItemRepository.upsert(shoppingCartId, addBookRequestDto.getBookId(),
+                addBookRequestDto.getQuantity());
+        return getShoppingCart(userId);
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public CartItemDto updateCartItem(Long userId, Long id, UpdateQuantityRequestDto updateDto) {
-        ShoppingCart shoppingCart = getShoppingCartByUserId(userId);
-        Optional<CartItem> presentItem = getCartItemById(shoppingCart, id);
-        if (presentItem.isEmpty()) {
-            throw new RuntimeException("You don't have an order with id " + id);
+        if (cartRepository.changeItemQuantityInTotals(id, userId,
+                updateDto.getQuantity()) == 0) {
+            throw new EntityNotFoundException("You don't have an order with id " + id);
         }
-        CartItem cartItem = presentItem.get();
-        cartItem.setQuantity(updateDto.getQuantity());
-        return cartItemMapper.toDto(cartItemRepository.save(cartItem));
+        cartItemRepository.updateQuantity(id, userId, updateDto.getQuantity());
+        return cartItemRepository.findDtoByIdAndUserId(id, userId).orElseThrow(
+                () -> new EntityNotFoundException("You don't have an order with id " + id));
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public void deleteOrder(Long userId, Long id) {
-        ShoppingCart shoppingCart = getShoppingCartByUserId(userId);
-        Optional<CartItem> presentItem = getCartItemById(shoppingCart, id);
-        if (presentItem.isEmpty()) {
-            throw new RuntimeException("You don't have an order with id " + id);
+        if (cartRepository.removeItemFromTotals(id, userId) == 0) {
+            throw new EntityNotFoundException("You don't have an order with id " + id);
+        }
+        cartItemRepository.softDelete(id, userId);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public CartBatchResponseDto applyBatch(Long userId, List<CartOperationDto> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("Can't apply more than " + MAX_BATCH_SIZE
+                    + " cart operations at once");
+        }
+        Long shoppingCartId = cartRepository.findIdByUserIdForUpdate(userId).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a shopping cart of the user id "
+                        + userId));
+        Map<Long, Long> bookIdsByItemId = new HashMap<>();
+        cartItemBatchRepository.findItemIds(List.of(shoppingCartId))
+                .getOrDefault(shoppingCartId, Map.of())
+                .forEach((bookId, itemId) -> bookIdsByItemId.put(itemId, bookId));
+        Set<Long> liveBookIds = cartItemBatchRepository.findLiveBookIds(operations.stream()
+                .filter(operation -> operation.getType() == CartOperationDto.Type.ADD
+                        && operation.getBookId() != null)
+                .map(CartOperationDto::getBookId)
+                .collect(Collectors.toSet()));
+        Map<Long, CartMutation> mutations = new LinkedHashMap<>();
+        List<CartOperationErrorDto> errors = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            CartOperationDto operation = operations.get(i);
+            CartMutation mutation = switch (operation.getType()) {
+                case ADD -> operation.getBookId() != null
+                        && liveBookIds.contains(operation.getBookId())
+                        ? CartMutation.add(shoppingCartId, operation.getBookId(),
+                                operation.getQuantity())
+                        : null;
+                case UPDATE -> bookIdsByItemId.containsKey(operation.getCartItemId())
+                        ? CartMutation.set(shoppingCartId,
+                                bookIdsByItemId.get(operation.getCartItemId()),
+                                operation.getQuantity())
+                        : null;
+                case REMOVE -> bookIdsByItemId.containsKey(operation.getCartItemId())
+                        ? CartMutation.remove(shoppingCartId,
+                                bookIdsByItemId.remove(operation.getCartItemId()))
+                        : null;
+            };
+            if (mutation == null) {
+                errors.add(new CartOperationErrorDto(i,
+                        operation.getType() == CartOperationDto.Type.ADD
+                                ? "Cannot find a book by id " + operation.getBookId()
+                                : "You don't have an order with id "
+                                        + operation.getCartItemId()));
+            } else {
+                mutations.merge(mutation.bookId(), mutation, ShoppingCartServiceImpl::combine);
+            }
+        }
+        cartItemBatchRepository.writeAll(mutations.values(), WRITE_BATCH_SIZE);
+        cartRepository.recalculateTotals(List.of(shoppingCartId));
+        return new CartBatchResponseDto(getShoppingCart(userId), errors);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartSummaryDto getSummary(Long userId) {
+        return cartRepository.findSummaryByUserId(userId).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a shopping cart of the user id "
+                        + userId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void repriceBook(Long bookId) {
+        List<Long> shoppingCartIds;
+        Long lastId = 0L;
+        do {
+            shoppingCartIds = cartRepository.findIdsByBookId(bookId, lastId, REPRICE_BATCH_SIZE);
+            if (!shoppingCartIds.isEmpty()) {
+                cartRepository.recalculateTotals(shoppingCartIds);
+                lastId = shoppingCartIds.get(shoppingCartIds.size() - 1);
+            }
+        } while (shoppingCartIds.size() == REPRICE_BATCH_SIZE);
+    }
+
+    private static CartMutation combine(CartMutation previous, CartMutation next) {
+        if (next.type() != CartMutation.Type.ADD) {
+            return next;
         }
-        cartItemRepository.deleteById(id);
+        return switch (previous.type()) {
+            case ADD -> CartMutation.add(next.shoppingCartId(), next.bookId(),
+                    previous.quantity() + next.quantity());
+            case SET -> CartMutation.set(next.shoppingCartId(), next.bookId(),
+                    previous.quantity() + next.quantity());
+            default -> CartMutation.set(next.shoppingCartId(), next.bookId(), next.quantity());
+        };
+    }
+
+    private Long getShoppingCartIdByUserId(Long userId) {
+        return cartRepository.findIdByUserId(userId).orElseThrow(
+                () -> new EntityNotFoundException("Cannot find a shopping cart of the user id "
+                        + userId));
     }
 
     private ShoppingCart getShoppingCartByUserId(Long userId) {
@@ -80,10 +187,4 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
                         + userId
                 ));
     }
-
-    private Optional<CartItem> getCartItemById(ShoppingCart shoppingCart, Long id) {
-        return shoppingCart.getCartItems().stream()
-                .filter(e -> e.getId() == id)
-                .findFirst();
-    }
 }
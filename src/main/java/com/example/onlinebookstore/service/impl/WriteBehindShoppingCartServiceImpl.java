@@ -0,0 +1,60 @@
+package com.example.onlinebookstore.service.impl;
+
+import com.example.onlinebookstore.cart.WriteBehindCartStore;
+import com.example.onlinebookstore.dto.cart.AddBookRequestDto;
+import com.example.onlinebookstore.dto.cart.CartBatchResponseDto;
+import com.example.onlinebookstore.dto.cart.CartOperationDto;
+import com.example.onlinebookstore.dto.cart.CartResponseDto;
+import com.example.onlinebookstore.dto.cart.CartSummaryDto;
+import com.example.onlinebookstore.dto.cartitem.CartItemDto;
+import com.example.onlinebookstore.dto.cartitem.UpdateQuantityRequestDto;
+import com.example.onlinebookstore.service.ShoppingCartService;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+@Primary
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindShoppingCartServiceImpl implements ShoppingCartService {
+    private final WriteBehindCartStore cartStore;
+
+    @Override
+    public CartResponseDto getShoppingCart(Long userId) {
+        return cartStore.getCart(userId);
+    }
+
+    @Override
+    public CartResponseDto addBook(Long userId, AddBookRequestDto addBookRequestDto) {
+        return cartStore.addBook(userId, addBookRequestDto.getBookId(),
+                addBookRequestDto.getQuantity());
+    }
+
+    @Override
+    public CartItemDto updateCartItem(Long userId, Long id, UpdateQuantityRequestDto updateDto) {
+        return cartStore.updateQuantity(userId, id, updateDto.getQuantity());
+    }
+
+    @Override
+    public void deleteOrder(Long userId, Long id) {
+        cartStore.remove(userId, id);
+    }
+
+    @Override
+    public CartBatchResponseDto applyBatch(Long userId, List<CartOperationDto> operations) {
+        return cartStore.apply(userId, operations);
+    }
+
+    @Override
+    public CartSummaryDto getSummary(Long userId) {
+        return cartStore.getSummary(userId);
+    }
+
+    @Override
+    public void repriceBook(Long bookId) {
+        cartStore.repriceBook(bookId);
+    }
+}
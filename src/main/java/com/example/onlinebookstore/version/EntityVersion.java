@@ -0,0 +1,6 @@
+package com.example.onlinebookstore.version;
+
+import java.time.LocalDateTime;
+
+public record EntityVersion(Long id, LocalDateTime updatedAt) {
+}
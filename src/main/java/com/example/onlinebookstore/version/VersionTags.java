@@ -0,0 +1,25 @@
+package com.example.onlinebookstore.version;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.util.DigestUtils;
+
+public final class VersionTags {
+    private VersionTags() {
+    }
+
+    public static String of(EntityVersion version) {
+        return of(List.of(version));
+    }
+
+    public static String of(List<EntityVersion> versions) {
+        StringBuilder source = new StringBuilder();
+        for (EntityVersion version : versions) {
+            source.append(version.id())
+                    .append(':')
+                    .append(version.updatedAt())
+                    .append(';');
+        }
+        return DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
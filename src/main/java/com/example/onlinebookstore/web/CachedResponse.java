@@ -0,0 +1,32 @@
+package com.example.onlinebookstore.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+public record CachedResponse(String contentType, Map<String, String> headers, byte[] body,
+                             byte[] gzippedBody) {
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    public static CachedResponse of(String contentType, Map<String, String> headers,
+                                    byte[] body) {
+        return new CachedResponse(contentType, headers, body,
+                body.length < MIN_GZIP_SIZE ? null : gzip(body));
+    }
+
+    public int weight() {
+        return body.length + (gzippedBody == null ? 0 : gzippedBody.length);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(gzipped)) {
+            outputStream.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't compress the response", e);
+        }
+        return gzipped.toByteArray();
+    }
+}
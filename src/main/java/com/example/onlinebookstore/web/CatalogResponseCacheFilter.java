@@ -0,0 +1,186 @@
+package com.example.onlinebookstore.web;
+
+import com.example.onlinebookstore.config.CacheConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+    private static final List<String> CATALOG_PATHS = List.of("/api/books", "/api/categories");
+    private static final List<String> UNCACHED_PATHS = List.of("/api/books/export",
+            "/api/books/import");
+    private static final List<String> READ_ONLY_POST_PATHS = List.of("/api/books/batch");
+    private static final String COVER_SUFFIX = "/cover";
+    private static final Pattern BOOK_PATH = Pattern.compile("/api/books/\\d+");
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET.name(),
+            HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+    private static final List<String> CACHED_HEADERS = List.of(HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.LINK, HttpHeaders.CACHE_CONTROL);
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+    private static final String GZIP = "gzip";
+    private static final String READER_AUTHORITY = "USER";
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache responseCache;
+
+    @Autowired
+    public CatalogResponseCacheFilter(CacheManager cacheManager) {
+        this.responseCache = cacheManager.getCache(CacheConfig.RESPONSES_CACHE);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = normalizedPath(request);
+        return CATALOG_PATHS.stream()
+                .noneMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = normalizedPath(request);
+        if (HttpMethod.POST.matches(request.getMethod()) && READ_ONLY_POST_PATHS.contains(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                if (response.getStatus() < HttpStatus.BAD_REQUEST.value()) {
+                    evictAll();
+                }
+            }
+            return;
+        }
+        if (!HttpMethod.GET.matches(request.getMethod()) || UNCACHED_PATHS.contains(path)
+                || path.endsWith(COVER_SUFFIX) || BOOK_PATH.matcher(path).matches()
+                || !isReader()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = key(path, request);
+        CachedResponse cachedResponse = responseCache.get(key, CachedResponse.class);
+        if (cachedResponse == null) {
+            final long startGeneration = generation.get();
+            ContentCachingResponseWrapper responseWrapper =
+                    new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, responseWrapper);
+            if (!isCacheable(request, responseWrapper)) {
+                responseWrapper.copyBodyToResponse();
+                return;
+            }
+            cachedResponse = toCachedResponse(responseWrapper);
+            if (generation.get() == startGeneration) {
+                responseCache.put(key, cachedResponse);
+            }
+        }
+        write(cachedResponse, request, response);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        responseCache.clear();
+    }
+
+    private boolean isReader() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> READER_AUTHORITY.equals(authority.getAuthority()));
+    }
+
+    private String normalizedPath(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request).replaceAll("/{2,}", "/");
+        return path.length() > 1 && path.endsWith("/")
+                ? path.substring(0, path.length() - 1)
+                : path;
+    }
+
+    private String key(String path, HttpServletRequest request) {
+        StringJoiner query = new StringJoiner("&", path + "?", "");
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            for (String value : values) {
+                query.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return query + " " + (accept == null
+                ? MediaType.ALL_VALUE
+                : accept.replace(" ", "").toLowerCase(Locale.ROOT));
+    }
+
+    private boolean isCacheable(HttpServletRequest request,
+                                ContentCachingResponseWrapper response) {
+        return !request.isAsyncStarted()
+                && response.getStatus() == HttpStatus.OK.value()
+                && response.getContentType() != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(
+                        MediaType.parseMediaType(response.getContentType()));
+    }
+
+    private CachedResponse toCachedResponse(ContentCachingResponseWrapper response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : CACHED_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return CachedResponse.of(response.getContentType(), headers,
+                response.getContentAsByteArray());
+    }
+
+    private void write(CachedResponse cachedResponse, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.VARY, VARY);
+        String entityTag = cachedResponse.headers().get(HttpHeaders.ETAG);
+        if (entityTag != null
+                && new ServletWebRequest(request, response).checkNotModified(entityTag)) {
+            return;
+        }
+        cachedResponse.headers().forEach(response::setHeader);
+        response.setContentType(cachedResponse.contentType());
+        byte[] body = cachedResponse.body();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (cachedResponse.gzippedBody() != null && acceptEncoding != null
+                && acceptEncoding.toLowerCase(Locale.ROOT).contains(GZIP)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            body = cachedResponse.gzippedBody();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
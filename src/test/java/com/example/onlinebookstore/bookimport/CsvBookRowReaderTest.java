@@ -0,0 +1,46 @@
+package com.example.onlinebookstore.bookimport;
+
+import com.example.onlinebookstore.exception.InvalidImportFileException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CsvBookRowReaderTest {
+    @Test
+    @DisplayName("Read quoted, multi-line and malformed rows")
+    public void next_ValidCsv_ShouldReturnRowsWithLineNumbers() throws IOException {
+        CsvBookRowReader reader = new CsvBookRowReader(new StringReader(
+                "Title,ISBN,Price,Description,CategoryIds\r\n"
+                        + "\"Refactoring, 2nd ed\",978-1,45.5,\"The \"\"red\"\"\nbook\",1;2\r\n"
+                        + "\n"
+                        + "Java,978-2,abc,,\n"
+                        + "Clean Code,978-3\n"));
+
+        BookImportRow first = reader.next();
+        Assertions.assertEquals(2, first.line());
+        Assertions.assertEquals("Refactoring, 2nd ed", first.book().getTitle());
+        Assertions.assertEquals("The \"red\"\nbook", first.book().getDescription());
+        Assertions.assertEquals(new BigDecimal("45.5"), first.book().getPrice());
+        Assertions.assertEquals(List.of(1L, 2L), first.book().getCategoryIds());
+
+        BookImportRow second = reader.next();
+        Assertions.assertEquals(5, second.line());
+        Assertions.assertEquals("price is not a number: abc", second.error());
+
+        BookImportRow third = reader.next();
+        Assertions.assertEquals(6, third.line());
+        Assertions.assertNotNull(third.error());
+        Assertions.assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Read a file without required columns. Throws an exception")
+    public void next_MissingRequiredColumn_ShouldThrowException() {
+        CsvBookRowReader reader = new CsvBookRowReader(new StringReader("title,isbn\nJava,1\n"));
+        Assertions.assertThrows(InvalidImportFileException.class, reader::next);
+    }
+}
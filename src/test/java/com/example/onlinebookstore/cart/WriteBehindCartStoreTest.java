@@ -0,0 +1,125 @@
+package com.example.onlinebookstore.cart;
+
+import com.example.onlinebookstore.dto.cart.CartResponseDto;
+import com.example.onlinebookstore.dto.cartitem.CartItemDto;
+import com.example.onlinebookstore.repository.CartItemBatchRepository;
+import com.example.onlinebookstore.repository.ShoppingCartRepository;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindCartStoreTest {
+    @TempDir
+    private Path logDirectory;
+    @Mock
+    private CartItemBatchRepository cartItemBatchRepository;
+    @Mock
+    private ShoppingCartRepository shoppingCartRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private WriteBehindCartStore cartStore;
+
+    @BeforeEach
+    private void createStore() {
+        cartStore = new WriteBehindCartStore(cartItemBatchRepository, shoppingCartRepository,
+                transactionManager, logDirectory, Duration.ofMinutes(30));
+        Mockito.when(shoppingCartRepository.findIdByUserId(1L)).thenReturn(Optional.of(10L));
+        Mockito.when(cartItemBatchRepository.findItems(10L)).thenReturn(List.of());
+        Mockito.when(cartItemBatchRepository.findBook(5L))
+                .thenReturn(Optional.of(new CartBook("Java", BigDecimal.valueOf(12))));
+    }
+
+    @Test
+    @DisplayName("Serve cart edits from memory and write them in one batch on flush")
+    public void flush_CoalescedEdits_ShouldWriteLatestQuantities() {
+        cartStore.addBook(1L, 5L, 2);
+        CartResponseDto cart = cartStore.addBook(1L, 5L, 3);
+        Assertions.assertEquals(5, cart.getCartItems().get(0).getQuantity());
+        Assertions.assertEquals(-5L, cart.getCartItems().get(0).getId());
+        Assertions.assertEquals(5, cart.getItemCount());
+        Assertions.assertEquals(0, BigDecimal.valueOf(60).compareTo(cart.getTotal()));
+        Mockito.verify(cartItemBatchRepository, Mockito.never())
+                .writeAll(Mockito.any(), Mockito.anyInt());
+
+        Mockito.when(cartItemBatchRepository.findItemIds(List.of(10L)))
+                .thenReturn(Map.of(10L, Map.of(5L, 100L)));
+        cartStore.flush();
+        Mockito.verify(cartItemBatchRepository).writeAll(
+                Mockito.eq(List.of(CartMutation.set(10L, 5L, 5))), Mockito.anyInt());
+        Mockito.verify(shoppingCartRepository).recalculateTotals(List.of(10L));
+        CartItemDto item = cartStore.updateQuantity(1L, 100L, 1);
+        Assertions.assertEquals(100L, item.getId());
+        Assertions.assertEquals(1, item.getQuantity());
+        Assertions.assertEquals(0, BigDecimal.valueOf(12)
+                .compareTo(cartStore.getSummary(1L).total()));
+    }
+
+    @Test
+    @DisplayName("Replay unflushed edits from the write-ahead log after a crash")
+    public void recover_UnflushedLog_ShouldWriteLoggedEdits() {
+        cartStore.addBook(1L, 5L, 2);
+        cartStore.remove(1L, -5L);
+
+        WriteBehindCartStore restarted = new WriteBehindCartStore(cartItemBatchRepository,
+                shoppingCartRepository, transactionManager, logDirectory,
+                Duration.ofMinutes(30));
+        restarted.recover();
+        Mockito.verify(cartItemBatchRepository).writeAll(
+                Mockito.eq(List.of(CartMutation.remove(10L, 5L))), Mockito.anyInt());
+
+        restarted.recover();
+        Mockito.verify(cartItemBatchRepository, Mockito.times(1))
+                .writeAll(Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Don't replay logged edits of a cart checked out after it left memory")
+    public void recover_CheckedOutCart_ShouldSkipLoggedEdits() {
+        cartStore.addBook(1L, 5L, 2);
+
+        new WriteBehindCartStore(cartItemBatchRepository, shoppingCartRepository,
+                transactionManager, logDirectory, Duration.ofMinutes(30)).flushAndEvict(1L);
+        new WriteBehindCartStore(cartItemBatchRepository, shoppingCartRepository,
+                transactionManager, logDirectory, Duration.ofMinutes(30)).recover();
+
+        Mockito.verify(cartItemBatchRepository, Mockito.never())
+                .writeAll(Mockito.any(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Log concurrent cart edits in order with shared syncs")
+    public void recover_ConcurrentEdits_ShouldReplayLatestQuantity() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> edits = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            edits.add(executor.submit(() -> cartStore.addBook(1L, 5L, 1)));
+        }
+        for (Future<?> edit : edits) {
+            edit.get();
+        }
+        executor.shutdown();
+
+        new WriteBehindCartStore(cartItemBatchRepository, shoppingCartRepository,
+                transactionManager, logDirectory, Duration.ofMinutes(30)).recover();
+        Mockito.verify(cartItemBatchRepository).writeAll(
+                Mockito.eq(List.of(CartMutation.set(10L, 5L, 200))), Mockito.anyInt());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.onlinebookstore.compaction;
+
+import com.example.onlinebookstore.repository.TombstoneRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TombstoneCompactorTest {
+    private static final Duration RETENTION = Duration.ofDays(30);
+    @Mock
+    private TombstoneRepository tombstoneRepository;
+
+    @Test
+    @DisplayName("Purge expired tombstones in batches and report reclaimed rows per table")
+    public void compact_ExpiredTombstones_ShouldDeleteInBatches() {
+        TombstoneCompactor compactor = new TombstoneCompactor(tombstoneRepository, RETENTION,
+                2, Duration.ZERO);
+        Mockito.when(tombstoneRepository.findExpiredIds(TombstoneTable.CART_ITEMS, RETENTION, 2))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        Mockito.when(tombstoneRepository.findExpiredIds(TombstoneTable.ORDER_ITEMS, RETENTION, 2))
+                .thenReturn(List.of());
+        Mockito.when(tombstoneRepository.findExpiredIds(TombstoneTable.ORDERS, RETENTION, 2))
+                .thenReturn(List.of(7L, 8L));
+        Mockito.when(tombstoneRepository.delete(TombstoneTable.CART_ITEMS, List.of(1L, 2L)))
+                .thenReturn(2);
+        Mockito.when(tombstoneRepository.delete(TombstoneTable.CART_ITEMS, List.of(3L)))
+                .thenReturn(1);
+        Mockito.when(tombstoneRepository.delete(TombstoneTable.ORDERS, List.of(7L, 8L)))
+                .thenReturn(0);
+
+        Map<TombstoneTable, Integer> reclaimed = compactor.compact();
+
+        Assertions.assertEquals(Map.of(TombstoneTable.CART_ITEMS, 3,
+                TombstoneTable.ORDER_ITEMS, 0,
+                TombstoneTable.ORDERS, 0), reclaimed);
+        Mockito.verify(tombstoneRepository, Mockito.never())
+                .delete(Mockito.eq(TombstoneTable.ORDER_ITEMS), Mockito.any());
+        Mockito.verify(tombstoneRepository, Mockito.times(1))
+                .findExpiredIds(TombstoneTable.ORDERS, RETENTION, 2);
+    }
+}
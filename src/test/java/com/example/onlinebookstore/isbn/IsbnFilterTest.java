@@ -0,0 +1,61 @@
+package com.example.onlinebookstore.isbn;
+
+import com.example.onlinebookstore.repository.BookBatchRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class IsbnFilterTest {
+    @Mock
+    private BookBatchRepository bookBatchRepository;
+    @InjectMocks
+    private IsbnFilter isbnFilter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    private void buildFilter() {
+        ReflectionTestUtils.setField(isbnFilter, "falsePositiveRate", 0.01);
+        Mockito.when(bookBatchRepository.countIsbns()).thenReturn(2L);
+        Mockito.doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("978-1");
+            consumer.accept("978-2");
+            return null;
+        }).when(bookBatchRepository).forEachIsbn(Mockito.any(Consumer.class));
+        isbnFilter.rebuild();
+    }
+
+    @Test
+    @DisplayName("Skip the database for isbns that were never added")
+    public void findTaken_NewIsbns_ShouldNotQueryDatabase() {
+        Assertions.assertTrue(isbnFilter.findTaken(List.of("978-3", "978-4")).isEmpty());
+        Assertions.assertFalse(isbnFilter.isTaken("978-5", null));
+        Mockito.verify(bookBatchRepository, Mockito.never()).findIdsByIsbns(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Confirm possibly taken isbns with the database")
+    public void isTaken_KnownIsbn_ShouldCheckOwner() {
+        Mockito.when(bookBatchRepository.findIdsByIsbns(List.of("978-1")))
+                .thenReturn(Map.of("978-1", 1L));
+        Assertions.assertTrue(isbnFilter.isTaken("978-1", null));
+        Assertions.assertFalse(isbnFilter.isTaken("978-1", 1L));
+
+        isbnFilter.add("978-6");
+        Mockito.when(bookBatchRepository.findIdsByIsbns(List.of("978-6")))
+                .thenReturn(Map.of("978-6", 6L));
+        Assertions.assertEquals(Set.of("978-6"), isbnFilter.findTaken(List.of("978-6")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.onlinebookstore.pagination;
+
+import com.example.onlinebookstore.dto.page.CursorPageDto;
+import com.example.onlinebookstore.dto.page.CursorPageRequestDto;
+import com.example.onlinebookstore.exception.InvalidCursorException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+class KeysetCursorTest {
+    @Test
+    @DisplayName("Build the first page cursor")
+    public void of_EmptyAfter_ShouldReturnInitialPosition() {
+        KeysetCursor cursor = KeysetCursor.of(new CursorPageRequestDto("", null, null));
+        Assertions.assertTrue(cursor.position().isInitial());
+        Assertions.assertEquals(Sort.by("id"), cursor.sort());
+        Assertions.assertEquals(KeysetCursor.DEFAULT_PAGE_SIZE, cursor.size());
+    }
+
+    @Test
+    @DisplayName("Encode and decode a cursor")
+    public void toPage_NextCursor_ShouldPointAfterLastElement() {
+        KeysetCursor cursor = KeysetCursor.of(new CursorPageRequestDto("", "price", 500));
+        Assertions.assertEquals(KeysetCursor.MAX_PAGE_SIZE, cursor.size());
+        Window<String> window = Window.from(List.of("Java"),
+                index -> ScrollPosition.forward(
+                        Map.of("price", new BigDecimal("23.95"), "id", 1L)), true);
+
+        CursorPageDto<String> page = cursor.toPage(window, String::toUpperCase);
+        Assertions.assertEquals(List.of("JAVA"), page.content());
+        Assertions.assertTrue(page.hasNext());
+
+        KeysetCursor next = KeysetCursor.of(
+                new CursorPageRequestDto(page.nextCursor(), null, 10));
+        Assertions.assertEquals(Sort.by("price").and(Sort.by("id")), next.sort());
+        Assertions.assertEquals(1L, next.position().getKeys().get("id"));
+        Assertions.assertEquals(new BigDecimal("23.95"),
+                next.position().getKeys().get("price"));
+    }
+
+    @Test
+    @DisplayName("Build a cursor. Throws an exception for a broken token")
+    public void of_MalformedAfter_ShouldThrowException() {
+        Assertions.assertThrows(InvalidCursorException.class,
+                () -> KeysetCursor.of(new CursorPageRequestDto("%%%", null, null)));
+        Assertions.assertThrows(InvalidCursorException.class,
+                () -> KeysetCursor.of(new CursorPageRequestDto("", "isbn", null)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.onlinebookstore.ranking;
+
+import com.example.onlinebookstore.repository.BookRankingRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class BookRankingsTest {
+    @Spy
+    private BookActivityCounters bookActivityCounters = new BookActivityCounters();
+    @Mock
+    private BookRankingRepository bookRankingRepository;
+    @InjectMocks
+    private BookRankings bookRankings;
+
+    @BeforeEach
+    private void configure() {
+        ReflectionTestUtils.setField(bookRankings, "halfLife", Duration.ofDays(7));
+        ReflectionTestUtils.setField(bookRankings, "topSize", 2);
+    }
+
+    @Test
+    @DisplayName("Rank books by decayed sales and views")
+    public void flush_RecordedActivity_ShouldRankBooksAndSaveScores() {
+        Mockito.when(bookRankingRepository.findAll()).thenReturn(List.of(
+                new BookRankingScore(1L, 8, 0, LocalDateTime.now().minusDays(14))));
+        bookRankings.load();
+        bookActivityCounters.recordSale(2L, 3);
+        bookActivityCounters.recordSale(3L, 1);
+        bookActivityCounters.recordView(3L);
+
+        bookRankings.flush();
+        Assertions.assertEquals(List.of(2L, 1L),
+                bookRankings.getTop(RankingType.BESTSELLERS, 10));
+        Assertions.assertEquals(List.of(3L), bookRankings.getTop(RankingType.TRENDING, 10));
+        Mockito.verify(bookRankingRepository).upsertAll(
+                Mockito.argThat(scores -> scores.size() == 2), Mockito.anyInt());
+
+        bookRankings.remove(2L);
+        Assertions.assertEquals(List.of(1L), bookRankings.getTop(RankingType.BESTSELLERS, 1));
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.onlinebookstore.repository;
 
-import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds;
 import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
@@ -29,11 +29,11 @@ class BookRepositoryTest {
             "classpath:database/books/clear-categories-table.sql"
     }, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     public void findAllByCategoryId_ValidCategoryId_ShouldReturnListOfBooks() {
-        Book book1 = bookRepository.findById(1L).get();
-        Book book2 = bookRepository.findById(2L).get();
         Long categoryId = 1L;
-        List<Book> expected = List.of(book1, book2);
-        List<Book> actual = bookRepository.findAllByCategoryId(categoryId);
+        List<Long> expected = List.of(1L, 2L);
+        List<Long> actual = bookRepository.findAllByCategoryId(categoryId).stream()
+                .map(BookDtoWithoutCategoryIds::getId)
+                .toList();
         Assertions.assertEquals(expected.size(), actual.size());
         Assertions.assertTrue(actual.containsAll(expected));
     }
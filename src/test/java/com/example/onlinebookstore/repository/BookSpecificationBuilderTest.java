@@ -41,6 +41,9 @@ class BookSpecificationBuilderTest {
         Book book3 = bookRepository.findById(3L).get();
         BookSearchParametersDto searchParametersDto = new BookSearchParametersDto(
                 new String[]{book1.getTitle(), book3.getTitle()},
+                null,
+                null,
+                null,
                 null
         );
         Specification<Book> specification = builder.build(searchParametersDto);
@@ -51,7 +54,10 @@ class BookSpecificationBuilderTest {
 
         searchParametersDto = new BookSearchParametersDto(
                 new String[]{book2.getTitle(), book3.getTitle()},
-                new String[]{book1.getIsbn()}
+                new String[]{book1.getIsbn()},
+                null,
+                null,
+                null
         );
         specification = builder.build(searchParametersDto);
         actual = bookRepository.findAll(specification);
@@ -59,7 +65,10 @@ class BookSpecificationBuilderTest {
 
         searchParametersDto = new BookSearchParametersDto(
                 null,
-                new String[]{book2.getIsbn()}
+                new String[]{book2.getIsbn()},
+                null,
+                null,
+                null
         );
         specification = builder.build(searchParametersDto);
         expected = List.of(book2);
@@ -68,6 +77,9 @@ class BookSpecificationBuilderTest {
         Assertions.assertTrue(actual.containsAll(expected));
 
         searchParametersDto = new BookSearchParametersDto(
+                null,
+                null,
+                null,
                 null,
                 null
         );
@@ -79,7 +91,10 @@ class BookSpecificationBuilderTest {
 
         searchParametersDto = new BookSearchParametersDto(
                 new String[]{book2.getTitle(), book3.getTitle()},
-                new String[]{book3.getIsbn()}
+                new String[]{book3.getIsbn()},
+                null,
+                null,
+                null
         );
         specification = builder.build(searchParametersDto);
         expected = List.of(book3);
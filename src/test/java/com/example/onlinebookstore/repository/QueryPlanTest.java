@@ -0,0 +1,124 @@
+package com.example.onlinebookstore.repository;
+
+import com.example.onlinebookstore.model.Order;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.onlinebookstore.repository.QueryPlanTest$CapturingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql(scripts = "classpath:database/query-plans/add-query-plan-data.sql",
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/query-plans/clear-query-plan-data.sql",
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class QueryPlanTest {
+    private static final Set<String> FULL_SCAN_TYPES = Set.of("ALL", "index");
+    private static final long MAX_FULL_SCAN_ROWS = 100;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Find orders of a user with their items without full table scans")
+    public void findAllByUserId_IndexedColumns_ShouldNotScanFullTables() {
+        assertNoFullTableScans(() -> orderRepository.findAllByUserId(1002L), 1002L);
+    }
+
+    @Test
+    @DisplayName("Find an order of a user without full table scans")
+    public void findByIdAndUserId_IndexedColumns_ShouldNotScanFullTables() {
+        assertNoFullTableScans(() -> orderRepository.findByIdAndUserId(1001L, 2002L),
+                1001L, 2002L);
+    }
+
+    @Test
+    @DisplayName("Find orders by status without full table scans")
+    public void findAllByStatus_IndexedColumns_ShouldNotScanFullTables() {
+        assertNoFullTableScans(() -> orderRepository.findAllByStatus(Order.Status.PENDING),
+                Order.Status.PENDING.name());
+    }
+
+    @Test
+    @DisplayName("Find an order item of an order without full table scans")
+    public void findByIdAndOrderId_IndexedColumns_ShouldNotScanFullTables() {
+        assertNoFullTableScans(() -> orderItemRepository.findByIdAndOrderId(1L, 1002L),
+                1L, 1002L);
+    }
+
+    @Test
+    @DisplayName("Find a shopping cart of a user with its items without full table scans")
+    public void findByUserId_IndexedColumns_ShouldNotScanFullTables() {
+        assertNoFullTableScans(() -> shoppingCartRepository.findByUserId(1002L), 1002L);
+    }
+
+    @Test
+    @DisplayName("Find books of a category without full table scans")
+    public void findAllByCategoryId_IndexedColumns_ShouldNotScanFullTables() {
+        assertNoFullTableScans(() -> bookRepository.findAllByCategoryId(1002L), 1002L);
+    }
+
+    private void assertNoFullTableScans(Runnable repositoryCall, Object... parameters) {
+        entityManager.clear();
+        CapturingStatementInspector.STATEMENTS.clear();
+        repositoryCall.run();
+        Set<String> statements = new LinkedHashSet<>(CapturingStatementInspector.STATEMENTS);
+        Assertions.assertFalse(statements.isEmpty(), "No statements were captured");
+        for (String sql : statements) {
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql,
+                    bindParameters(sql, parameters));
+            for (Map<String, Object> row : plan) {
+                boolean fullScan = FULL_SCAN_TYPES.contains(row.get("type"))
+                        && ((Number) row.get("rows")).longValue() > MAX_FULL_SCAN_ROWS;
+                Assertions.assertFalse(fullScan,
+                        () -> "Full scan of " + row.get("table") + " in " + sql + ": " + plan);
+            }
+        }
+    }
+
+    private Object[] bindParameters(String sql, Object[] parameters) {
+        // Eager association loads get the first parameter, any constant gives the same plan
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                values.add(parameters[Math.min(values.size(), parameters.length - 1)]);
+            }
+        }
+        return values.toArray();
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        private static final List<String> STATEMENTS =
+                Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
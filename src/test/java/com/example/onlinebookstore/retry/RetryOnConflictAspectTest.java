@@ -0,0 +1,55 @@
+package com.example.onlinebookstore.retry;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class RetryOnConflictAspectTest {
+    private final RetryOnConflictAspect aspect = new RetryOnConflictAspect();
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+    @Mock
+    private Signature signature;
+
+    @Test
+    @DisplayName("Retry a conflicting call until it succeeds")
+    public void retry_ConflictThenSuccess_ShouldReturnResult() throws Throwable {
+        Mockito.when(joinPoint.getSignature()).thenReturn(signature);
+        Mockito.when(joinPoint.proceed())
+                .thenThrow(new OptimisticLockingFailureException("conflict"))
+                .thenReturn("done");
+
+        Object actual = aspect.retry(joinPoint, retryOnConflict(3));
+
+        Assertions.assertEquals("done", actual);
+        Mockito.verify(joinPoint, Mockito.times(2)).proceed();
+    }
+
+    @Test
+    @DisplayName("Give up after the configured number of attempts")
+    public void retry_PersistentConflict_ShouldRethrow() throws Throwable {
+        Mockito.when(joinPoint.getSignature()).thenReturn(signature);
+        Mockito.when(joinPoint.proceed())
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        Assertions.assertThrows(OptimisticLockingFailureException.class,
+                () -> aspect.retry(joinPoint, retryOnConflict(2)));
+        Mockito.verify(joinPoint, Mockito.times(2)).proceed();
+    }
+
+    private RetryOnConflict retryOnConflict(int maxAttempts) {
+        RetryOnConflict retryOnConflict = Mockito.mock(RetryOnConflict.class);
+        Mockito.when(retryOnConflict.maxAttempts()).thenReturn(maxAttempts);
+        Mockito.when(retryOnConflict.backoffMillis()).thenReturn(0L);
+        Mockito.lenient().when(retryOnConflict.multiplier()).thenReturn(2.0);
+        return retryOnConflict;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.repository.BookRepository;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+    @Mock
+    private BookRepository bookRepository;
+    @InjectMocks
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    private void buildIndex() {
+        Mockito.when(bookRepository.findSearchDocumentsAfter(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(
+                        new BookSearchDocument(1L, "Java", "978-0-07-180925-6",
+                                "A Beginner's Guide, Eighth Edition"),
+                        new BookSearchDocument(2L, "Head First Java", "978-0-596-00920-5",
+                                "Head First Java is referred to as the Java programming bible"),
+                        new BookSearchDocument(3L, "Clean Code", "978-0-13-235088-4",
+                                "A handbook of agile software craftsmanship")
+                ));
+        bookSearchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Search books by words, prefixes and with typos")
+    public void search_TextQuery_ShouldReturnRankedIds() {
+        Assertions.assertEquals(List.of(2L, 1L), bookSearchIndex.search("java", 10));
+        Assertions.assertEquals(List.of(3L), bookSearchIndex.search("craftsman", 10));
+        Assertions.assertEquals(List.of(3L), bookSearchIndex.search("Claen code", 10));
+        Assertions.assertEquals(List.of(2L), bookSearchIndex.search("head java", 10));
+        Assertions.assertTrue(bookSearchIndex.search("python", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Match every hit regardless of the result limit")
+    public void match_TextQuery_ShouldReturnAllHits() {
+        Assertions.assertEquals(Set.of(1L, 2L), bookSearchIndex.match("java"));
+        Assertions.assertEquals(List.of(2L), bookSearchIndex.search("java", 1));
+    }
+
+    @Test
+    @DisplayName("Search books by isbn")
+    public void search_IsbnQuery_ShouldReturnBook() {
+        Assertions.assertEquals(List.of(3L), bookSearchIndex.search("978-0-13-235088-4", 10));
+        Assertions.assertEquals(List.of(2L), bookSearchIndex.search("9780596", 10));
+    }
+
+    @Test
+    @DisplayName("Update the index incrementally")
+    public void indexAndRemove_ChangedBooks_ShouldUpdateResults() {
+        bookSearchIndex.index(new BookSearchDocument(4L, "Effective Java", "978-0-13-468599-1",
+                "Best practices for the Java platform"));
+        Assertions.assertTrue(bookSearchIndex.search("effective", 10).contains(4L));
+
+        bookSearchIndex.index(new BookSearchDocument(1L, "Kotlin", "978-0-07-180925-6", null));
+        Assertions.assertEquals(List.of(1L), bookSearchIndex.search("kotlin", 10));
+
+        bookSearchIndex.remove(2L);
+        Assertions.assertEquals(List.of(4L), bookSearchIndex.search("java", 10));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.repository.BookBatchRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryBitmapIndexTest {
+    @Mock
+    private BookBatchRepository bookBatchRepository;
+    @InjectMocks
+    private CategoryBitmapIndex categoryBitmapIndex;
+
+    @Test
+    @DisplayName("Filter books by categories and count them per category")
+    public void filter_AnyAndAllCategories_ShouldReturnBooksAndFacets() {
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<Long, Long> links = invocation.getArgument(0);
+            links.accept(1L, 1L);
+            links.accept(2L, 1L);
+            links.accept(2L, 2L);
+            links.accept(3L, 3L);
+            return null;
+        }).when(bookBatchRepository).forEachLiveCategoryLink(Mockito.any());
+        categoryBitmapIndex.rebuild();
+
+        Assertions.assertEquals(RoaringBitmap.bitmapOf(1, 2, 3),
+                categoryBitmapIndex.filter(List.of(1L, 3L, 4L), null));
+        RoaringBitmap books = categoryBitmapIndex.filter(List.of(1L), List.of(2L));
+        Assertions.assertEquals(RoaringBitmap.bitmapOf(2), books);
+        Assertions.assertEquals(Map.of(1L, 1L, 2L, 1L), categoryBitmapIndex.facetCounts(books));
+        Assertions.assertNull(categoryBitmapIndex.filter(List.of(), null));
+
+        categoryBitmapIndex.index(3L, List.of(1L));
+        categoryBitmapIndex.remove(1L);
+        categoryBitmapIndex.removeCategory(2L);
+        Assertions.assertEquals(Map.of(1L, 2L), categoryBitmapIndex.facetCounts(null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.onlinebookstore.search;
+
+import com.example.onlinebookstore.dto.book.BookSuggestionDto;
+import com.example.onlinebookstore.ranking.BookRankings;
+import com.example.onlinebookstore.repository.BookRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TitleTypeaheadTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookRankings bookRankings;
+    @InjectMocks
+    private TitleTypeahead titleTypeahead;
+
+    @BeforeEach
+    private void buildTrie() {
+        Mockito.when(bookRankings.getPopularity()).thenReturn(Map.of(2L, 5.0, 3L, 1.0));
+        Mockito.when(bookRepository.findSearchDocumentsAfter(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(List.of(
+                        new BookSearchDocument(1L, "Java", null, null),
+                        new BookSearchDocument(2L, "Head First Java", null, null),
+                        new BookSearchDocument(3L, "Java for Dummies", null, null),
+                        new BookSearchDocument(4L, "Clean Code", null, null)
+                ));
+        titleTypeahead.rebuild();
+    }
+
+    @Test
+    @DisplayName("Complete titles by any word prefix, popular books first")
+    public void suggest_Prefix_ShouldReturnPopularTitlesFirst() {
+        Assertions.assertEquals(List.of(
+                new BookSuggestionDto(2L, "Head First Java"),
+                new BookSuggestionDto(3L, "Java for Dummies"),
+                new BookSuggestionDto(1L, "Java")
+        ), titleTypeahead.suggest("JA", 10));
+        Assertions.assertEquals(List.of(new BookSuggestionDto(2L, "Head First Java")),
+                titleTypeahead.suggest("java", 1));
+        Assertions.assertEquals(List.of(new BookSuggestionDto(4L, "Clean Code")),
+                titleTypeahead.suggest(" clean  c", 10));
+        Assertions.assertTrue(titleTypeahead.suggest("python", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Update completions incrementally")
+    public void indexAndRemove_ChangedBooks_ShouldUpdateSuggestions() {
+        titleTypeahead.remove(2L);
+        titleTypeahead.index(3L, "Kotlin in Action");
+        titleTypeahead.index(5L, "Effective Java");
+
+        Assertions.assertEquals(List.of(1L, 5L), titleTypeahead.suggest("jav", 10).stream()
+                .map(BookSuggestionDto::id)
+                .toList());
+        Assertions.assertEquals(List.of(new BookSuggestionDto(3L, "Kotlin in Action")),
+                titleTypeahead.suggest("kot", 10));
+        Assertions.assertTrue(titleTypeahead.suggest("head", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Complete titles inside shared prefixes after removals")
+    public void suggest_PrefixInsideMergedKey_ShouldReturnTitles() {
+        titleTypeahead.remove(1L);
+        titleTypeahead.index(5L, "Javascript");
+
+        Assertions.assertEquals(List.of(2L, 3L, 5L), titleTypeahead.suggest("java", 10).stream()
+                .map(BookSuggestionDto::id)
+                .toList());
+        Assertions.assertEquals(List.of(new BookSuggestionDto(3L, "Java for Dummies")),
+                titleTypeahead.suggest("java fo", 10));
+        Assertions.assertTrue(titleTypeahead.suggest("java x", 10).isEmpty());
+
+        titleTypeahead.remove(5L);
+        Assertions.assertEquals(List.of(2L, 3L), titleTypeahead.suggest("jav", 10).stream()
+                .map(BookSuggestionDto::id)
+                .toList());
+    }
+}
@@ -1,16 +1,26 @@
 package com.example.onlinebookstore.service;
 
+import com.example.onlinebookstore.config.CacheConfig;
 import com.example.onlinebookstore.dto.book.BookDto;
 import com.example.onlinebookstore.dto.book.BookDtoWithoutCategoryIds;
 import com.example.onlinebookstore.dto.book.BookSearchParametersDto;
 import com.example.onlinebookstore.dto.book.CreateBookRequestDto;
+import com.example.onlinebookstore.exception.DuplicateIsbnException;
 import com.example.onlinebookstore.exception.EntityNotFoundException;
+import com.example.onlinebookstore.exception.ResultWindowTooLargeException;
+import com.example.onlinebookstore.isbn.IsbnFilter;
 import com.example.onlinebookstore.mapper.BookMapper;
 import com.example.onlinebookstore.model.Book;
+import com.example.onlinebookstore.ranking.BookActivityCounters;
+import com.example.onlinebookstore.ranking.BookRankings;
 import com.example.onlinebookstore.repository.BookRepository;
 import com.example.onlinebookstore.repository.BookSpecificationBuilder;
+import com.example.onlinebookstore.search.BookSearchIndex;
+import com.example.onlinebookstore.search.CategoryBitmapIndex;
+import com.example.onlinebookstore.search.TitleTypeahead;
 import com.example.onlinebookstore.service.impl.BookServiceImpl;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
@@ -18,15 +28,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
@@ -42,11 +58,32 @@ class BookServiceTest {
     private BookMapper bookMapper;
     @Mock
     private BookSpecificationBuilder bookSpecificationBuilder;
-    @InjectMocks
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
+    @Mock
+    private TitleTypeahead titleTypeahead;
+    @Mock
+    private IsbnFilter isbnFilter;
+    @Mock
+    private BookActivityCounters bookActivityCounters;
+    @Mock
+    private BookRankings bookRankings;
+    @Mock
+    private ShoppingCartService shoppingCartService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKS_CACHE);
     private BookServiceImpl bookService;
 
     @BeforeEach
     private void initBookAndBookDto() {
+        bookService = new BookServiceImpl(bookRepository, bookMapper, bookSpecificationBuilder,
+                bookSearchIndex, categoryBitmapIndex, titleTypeahead, isbnFilter,
+                bookActivityCounters, bookRankings, shoppingCartService, cacheManager,
+                transactionManager, 1000);
         book = new Book();
         book.setId(1L);
         book.setTitle("Java");
@@ -119,6 +156,33 @@ class BookServiceTest {
         Assertions.assertEquals(expected.getDescription(), actual.getDescription());
     }
 
+    @Test
+    @DisplayName("Save a book. Throws an exception for a taken isbn")
+    void save_DuplicateIsbn_ShouldThrowException() {
+        CreateBookRequestDto requestDto = new CreateBookRequestDto();
+        requestDto.setIsbn(book.getIsbn());
+        Mockito.when(isbnFilter.isTaken(book.getIsbn(), null)).thenReturn(true);
+
+        Assertions.assertThrows(DuplicateIsbnException.class,
+                () -> bookService.save(requestDto));
+        Mockito.verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("Find books by ids from the cache and the DB in the requested order")
+    public void findAllById_CachedAndMissingIds_ShouldKeepRequestedOrder() {
+        Mockito.when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+        bookService.getById(book.getId());
+        Mockito.when(bookRepository.findAllById(List.of(3L, 2L, 4L)))
+                .thenReturn(List.of(book2, book3));
+        Mockito.when(bookMapper.toDto(book2)).thenReturn(book2Dto);
+        Mockito.when(bookMapper.toDto(book3)).thenReturn(book3Dto);
+
+        List<BookDto> actual = bookService.findAllById(List.of(3L, 1L, 2L, 3L, 4L));
+        Assertions.assertEquals(List.of(book3Dto, bookDto, book2Dto), actual);
+    }
+
     @Test
     @DisplayName("Find all books")
     public void findAll_ValidRequest_ShouldReturnListOfBookDtos() {
@@ -151,6 +215,43 @@ class BookServiceTest {
         Assertions.assertEquals(expected.getDescription(), actual.getDescription());
     }
 
+    @Test
+    @DisplayName("Find a book by book id. Repeated reads are served from the cache")
+    public void getById_RepeatedRequest_ShouldHitRepositoryOnce() {
+        Long bookId = 1L;
+        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        bookService.getById(bookId);
+        BookDto actual = bookService.getById(bookId);
+        Assertions.assertEquals(bookDto, actual);
+        Mockito.verify(bookRepository, Mockito.times(1)).findById(bookId);
+        Mockito.verify(transactionManager, Mockito.times(1)).getTransaction(Mockito.any());
+
+        bookService.deleteById(bookId);
+        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> bookService.getById(bookId));
+    }
+
+    @Test
+    @DisplayName("Get a version tag of a book. The tag is cached with the book")
+    public void getVersionTag_CachedBook_ShouldNotQueryVersion() {
+        Long bookId = 1L;
+        book.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+        Mockito.when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        String tag = bookService.getVersionTag(bookId);
+        Assertions.assertEquals(bookDto, bookService.getById(bookId));
+        Assertions.assertEquals(tag, bookService.getVersionTag(bookId));
+        Mockito.verify(bookRepository, Mockito.times(1)).findById(bookId);
+
+        book.setUpdatedAt(book.getUpdatedAt().plusNanos(1000));
+        bookService.deleteById(bookId);
+        Assertions.assertNotEquals(tag, bookService.getVersionTag(bookId));
+    }
+
     @Test
     @DisplayName("Find a book by book id. Throws an exception for the wrong book id")
     public void getById_WrongId_ShouldThrowException() {
@@ -171,11 +272,13 @@ class BookServiceTest {
         BookDto expected = bookDto;
         Mockito.when(bookMapper.toModel(requestDto)).thenReturn(book);
         Mockito.when(bookMapper.toDto(book)).thenReturn(expected);
-        Mockito.when(bookRepository.save(book)).thenReturn(book);
-        Mockito.when(bookRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(book);
+        Mockito.when(bookRepository.findPriceById(book.getId()))
+                .thenReturn(Optional.of(book.getPrice().add(BigDecimal.ONE)));
 
         Long bookId = book.getId();
         BookDto actual = bookService.update(bookId, requestDto);
+        Mockito.verify(shoppingCartService).repriceBook(bookId);
         Assertions.assertEquals(expected.getId(), actual.getId());
         Assertions.assertEquals(expected.getIsbn(), actual.getIsbn());
         Assertions.assertEquals(expected.getTitle(), actual.getTitle());
@@ -192,7 +295,8 @@ class BookServiceTest {
         requestDto.setDescription(book.getDescription());
         requestDto.setPrice(book.getPrice());
 
-        Mockito.when(bookRepository.existsById(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(bookRepository.findPriceById(Mockito.anyLong()))
+                .thenReturn(Optional.empty());
         Assertions.assertThrows(EntityNotFoundException.class,
                 () -> bookService.update(Mockito.anyLong(), requestDto));
     }
@@ -201,23 +305,54 @@ class BookServiceTest {
     @DisplayName("Search a book using search parameters")
     public void search_ValidSearchParameters_ShouldReturnBookDtos() {
         BookSearchParametersDto searchParameters =
-                new BookSearchParametersDto(new String[1], new String[1]);
+                new BookSearchParametersDto(new String[1], new String[1], null, null, null);
 
         Specification<Book> bookSpecification = Mockito.mock(Specification.class);
 
         Mockito.when(bookSpecificationBuilder.build(searchParameters))
                 .thenReturn(bookSpecification);
 
-        List<Book> books = List.of(book, book2, book3);
-        Mockito.when(bookRepository.findAll(bookSpecification)).thenReturn(books);
+        Window<Book> books = Window.from(List.of(book, book2, book3),
+                ScrollPosition::offset, true);
+        Mockito.when(bookRepository.<Book, Window<Book>>findBy(
+                Mockito.eq(bookSpecification), Mockito.any())).thenReturn(books);
         Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
         Mockito.when(bookMapper.toDto(book2)).thenReturn(book2Dto);
         Mockito.when(bookMapper.toDto(book3)).thenReturn(book3Dto);
 
         List<BookDto> expected = List.of(bookDto, book2Dto, book3Dto);
-        List<BookDto> actual = bookService.search(searchParameters);
-        Assertions.assertTrue(actual.containsAll(expected));
-        Assertions.assertEquals(expected.size(), actual.size());
+        Slice<BookDto> actual = bookService.search(searchParameters, PageRequest.of(0, 3));
+        Assertions.assertEquals(expected, actual.getContent());
+        Assertions.assertTrue(actual.hasNext());
+    }
+
+    @Test
+    @DisplayName("Search books by a full-text query. Only the books of the page are fetched")
+    public void search_QueryWithoutSort_ShouldFetchPageOfRankedIds() {
+        BookSearchParametersDto searchParameters =
+                new BookSearchParametersDto(null, null, "java", null, null);
+        Mockito.when(bookSearchIndex.search("java", BookSearchIndex.MAX_HITS))
+                .thenReturn(List.of(3L, 1L, 2L));
+        Mockito.when(bookRepository.findAllById(List.of(3L, 1L)))
+                .thenReturn(List.of(book, book3));
+        Mockito.when(bookMapper.toDto(book)).thenReturn(bookDto);
+        Mockito.when(bookMapper.toDto(book3)).thenReturn(book3Dto);
+
+        Slice<BookDto> actual = bookService.search(searchParameters, PageRequest.of(0, 2));
+        Assertions.assertEquals(List.of(book3Dto, bookDto), actual.getContent());
+        Assertions.assertTrue(actual.hasNext());
+        Mockito.verify(bookSearchIndex, Mockito.times(1)).search(Mockito.any(), Mockito.anyInt());
+        Mockito.verifyNoInteractions(bookSpecificationBuilder);
+    }
+
+    @Test
+    @DisplayName("Search books beyond the maximum result window. Throws an exception")
+    public void search_TooDeepPage_ShouldThrowException() {
+        BookSearchParametersDto searchParameters =
+                new BookSearchParametersDto(null, null, null, null, null);
+        Assertions.assertThrows(ResultWindowTooLargeException.class,
+                () -> bookService.search(searchParameters, PageRequest.of(100, 20)));
+        Mockito.verifyNoInteractions(bookRepository);
     }
 
     @Test
@@ -244,15 +379,11 @@ class BookServiceTest {
         book3Dto.setPrice(book3.getPrice());
         book3Dto.setDescription(book3.getDescription());
 
-        List<Book> books = List.of(book, book2, book3);
+        List<BookDtoWithoutCategoryIds> expected = List.of(book1Dto, book2Dto, book3Dto);
         Long categoryId = 1L;
 
-        Mockito.when(bookRepository.findAllByCategoryId(categoryId)).thenReturn(books);
-        Mockito.when(bookMapper.toDtoWithoutCategories(book)).thenReturn(book1Dto);
-        Mockito.when(bookMapper.toDtoWithoutCategories(book2)).thenReturn(book2Dto);
-        Mockito.when(bookMapper.toDtoWithoutCategories(book3)).thenReturn(book3Dto);
+        Mockito.when(bookRepository.findAllByCategoryId(categoryId)).thenReturn(expected);
 
-        List<BookDtoWithoutCategoryIds> expected = List.of(book1Dto, book2Dto, book3Dto);
         List<BookDtoWithoutCategoryIds> actual = bookService.getBooksByCategoryId(categoryId);
         Assertions.assertTrue(actual.containsAll(expected));
         Assertions.assertEquals(expected.size(), actual.size());
@@ -5,10 +5,11 @@ import com.example.onlinebookstore.dto.category.CreateCategoryRequestDto;
 import com.example.onlinebookstore.exception.EntityNotFoundException;
 import com.example.onlinebookstore.mapper.CategoryMapper;
 import com.example.onlinebookstore.model.Category;
+import com.example.onlinebookstore.repository.BookRepository;
 import com.example.onlinebookstore.repository.CategoryRepository;
+import com.example.onlinebookstore.search.CategoryBitmapIndex;
 import com.example.onlinebookstore.service.impl.CategoryServiceImpl;
 import java.util.List;
-import java.util.Optional;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,10 +19,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceTest {
@@ -35,6 +35,10 @@ class CategoryServiceTest {
     private CategoryRepository categoryRepository;
     @Mock
     private CategoryMapper categoryMapper;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CategoryBitmapIndex categoryBitmapIndex;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -74,10 +78,9 @@ class CategoryServiceTest {
     @Test
     @DisplayName("Find all categories")
     public void findAll_ValidRequest_ShouldReturnListOfCategoryDtos() {
-        List<Category> categories = List.of(category1, category2, category3);
+        List<Category> categories = List.of(category3, category1, category2);
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Category> categoryPage = new PageImpl<>(categories, pageable, categories.size());
-        Mockito.when(categoryRepository.findAll(pageable)).thenReturn(categoryPage);
+        Mockito.when(categoryRepository.findAll()).thenReturn(categories);
         Mockito.when(categoryMapper.toDto(category1)).thenReturn(category1Dto);
         Mockito.when(categoryMapper.toDto(category2)).thenReturn(category2Dto);
         Mockito.when(categoryMapper.toDto(category3)).thenReturn(category3Dto);
@@ -94,8 +97,7 @@ class CategoryServiceTest {
     public void getById_ValidId_ShouldReturnDtoById() {
         Long categoryId = 2L;
         CategoryResponseDto expected = category2Dto;
-        Mockito.when(categoryRepository.findById(categoryId))
-                .thenReturn(Optional.ofNullable(category2));
+        Mockito.when(categoryRepository.findAll()).thenReturn(List.of(category2));
         Mockito.when(categoryMapper.toDto(category2)).thenReturn(expected);
         CategoryResponseDto actual = categoryService.getById(categoryId);
         Assertions.assertEquals(expected.getId(), actual.getId());
@@ -107,11 +109,34 @@ class CategoryServiceTest {
     @DisplayName("Get a category by its id. Throws an exception for the wrong category id")
     public void getById_WrongId_ShouldThrowException() {
         Long categoryId = 1L;
-        Mockito.when(categoryRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(categoryRepository.findAll()).thenReturn(List.of(category2));
         Assertions.assertThrows(EntityNotFoundException.class,
                 () -> categoryService.getById(categoryId));
     }
 
+    @Test
+    @DisplayName("Read categories from the snapshot. Writes replace the snapshot")
+    public void getById_RepeatedRequests_ShouldLoadCategoriesOnce() {
+        Mockito.when(categoryRepository.findAll())
+                .thenReturn(List.of(category1, category2))
+                .thenReturn(List.of(category1, category2, category3));
+        Mockito.when(categoryMapper.toDto(category1)).thenReturn(category1Dto);
+        Mockito.when(categoryMapper.toDto(category2)).thenReturn(category2Dto);
+        Mockito.when(categoryMapper.toDto(category3)).thenReturn(category3Dto);
+
+        Assertions.assertEquals(category1Dto, categoryService.getById(1L));
+        Assertions.assertEquals(List.of(category2Dto),
+                categoryService.findAll(PageRequest.of(0, 1, Sort.by("name").descending())));
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> categoryService.getById(3L));
+        Mockito.verify(categoryRepository, Mockito.times(1)).findAll();
+
+        Mockito.when(categoryMapper.toModel(Mockito.any())).thenReturn(category3);
+        Mockito.when(categoryRepository.save(category3)).thenReturn(category3);
+        categoryService.save(new CreateCategoryRequestDto());
+        Assertions.assertEquals(category3Dto, categoryService.getById(3L));
+    }
+
     @Test
     @DisplayName("Save a new category")
     public void save_ValidSaveRequest_ShouldReturnCategoryDto() {
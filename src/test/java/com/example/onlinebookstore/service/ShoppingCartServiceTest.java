@@ -1,29 +1,35 @@
 package com.example.onlinebookstore.service;
 
+import com.example.onlinebookstore.cart.CartMutation;
 import com.example.onlinebookstore.dto.cart.AddBookRequestDto;
+import com.example.onlinebookstore.dto.cart.CartBatchResponseDto;
+import com.example.onlinebookstore.dto.cart.CartOperationDto;
+import com.example.onlinebookstore.dto.cart.CartOperationErrorDto;
 import com.example.onlinebookstore.dto.cart.CartResponseDto;
 import com.example.onlinebookstore.dto.cartitem.CartItemDto;
 import com.example.onlinebookstore.dto.cartitem.UpdateQuantityRequestDto;
 import com.example.onlinebookstore.exception.EntityNotFoundException;
-import com.example.onlinebookstore.mapper.CartItemMapper;
 import com.example.onlinebookstore.mapper.CartMapper;
 import com.example.onlinebookstore.model.Book;
-import com.example.onlinebookstore.model.CartItem;
 import com.example.onlinebookstore.model.ShoppingCart;
 import com.example.onlinebookstore.model.User;
-import com.example.onlinebookstore.repository.BookRepository;
+import com.example.onlinebookstore.repository.CartItemBatchRepository;
 import com.example.onlinebookstore.repository.CartItemRepository;
 import com.example.onlinebookstore.repository.ShoppingCartRepository;
 import com.example.onlinebookstore.service.impl.ShoppingCartServiceImpl;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -36,9 +42,7 @@ class ShoppingCartServiceTest {
     @Mock
     private CartItemRepository cartItemRepository;
     @Mock
-    private BookRepository bookRepository;
-    @Mock
-    private CartItemMapper cartItemMapper;
+    private CartItemBatchRepository cartItemBatchRepository;
     @Mock
     private CartMapper cartMapper;
     @InjectMocks
@@ -79,27 +83,24 @@ class ShoppingCartServiceTest {
         User user = getUser(1L);
         ShoppingCart shoppingCart = getShoppingCart(user);
 
-        CartItem cartItem = new CartItem();
-        cartItem.setShoppingCart(shoppingCart);
-        cartItem.setBook(book);
-        cartItem.setQuantity(addBookRequestDto.getQuantity());
-
         CartItemDto cartItemDto = new CartItemDto();
-        cartItemDto.setBookTitle(cartItem.getBook().getTitle());
-        cartItemDto.setBookId(cartItem.getBook().getId());
-        cartItemDto.setQuantity(cartItem.getQuantity());
+        cartItemDto.setBookTitle(book.getTitle());
+        cartItemDto.setBookId(book.getId());
+        cartItemDto.setQuantity(addBookRequestDto.getQuantity());
 
         CartResponseDto expected = getCartResponseDto(shoppingCart);
         expected.setCartItems(List.of(cartItemDto));
 
-        Mockito.when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
-        Mockito.when(cartRepository.save(shoppingCart)).thenReturn(shoppingCart);
-        Mockito.when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
+        Mockito.when(cartRepository.findIdByUserId(user.getId()))
+                .thenReturn(Optional.of(shoppingCart.getId()));
+        Mockito.when(cartRepository.addToTotals(shoppingCart.getId(), book.getId(), 2))
+                .thenReturn(1);
         Mockito.when(cartMapper.toDto(shoppingCart)).thenReturn(expected);
         Mockito.when(cartRepository.findByUserId(user.getId()))
                 .thenReturn(Optional.of(shoppingCart));
 
         CartResponseDto actual = shoppingCartService.addBook(user.getId(), addBookRequestDto);
+        Mockito.verify(cartItemRepository).upsert(shoppingCart.getId(), book.getId(), 2);
         Assertions.assertEquals(expected.getId(), actual.getId());
         Assertions.assertEquals(expected.getUserId(), actual.getUserId());
         Assertions.assertEquals(expected.getCartItems().size(), actual.getCartItems().size());
@@ -114,66 +115,112 @@ class ShoppingCartServiceTest {
         ShoppingCart shoppingCart = getShoppingCart(user);
         AddBookRequestDto addBookRequestDto = new AddBookRequestDto();
         addBookRequestDto.setBookId(2L);
-        Mockito.when(cartRepository.findByUserId(user.getId()))
-                .thenReturn(Optional.of(shoppingCart));
-        Mockito.when(bookRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(cartRepository.findIdByUserId(user.getId()))
+                .thenReturn(Optional.of(shoppingCart.getId()));
+        Mockito.when(cartRepository.addToTotals(shoppingCart.getId(), 2L, 0)).thenReturn(0);
         Assertions.assertThrows(EntityNotFoundException.class,
                 () -> shoppingCartService.addBook(user.getId(), addBookRequestDto));
+        Mockito.verifyNoInteractions(cartItemRepository);
     }
 
     @Test
     @DisplayName("Update cart item")
     public void updateCartItem_ValidRequest_ShouldReturnCartItemDto() {
         User user = getUser(2L);
-
-        CartItem cartItem = new CartItem();
-        cartItem.setId(3L);
-        cartItem.setBook(getBook());
-        cartItem.setQuantity(5);
-
-        ShoppingCart shoppingCart = getShoppingCart(user);
-        shoppingCart.setCartItems(Set.of(cartItem));
-
+        Book book = getBook();
         UpdateQuantityRequestDto updateQuantityRequestDto = new UpdateQuantityRequestDto();
         updateQuantityRequestDto.setQuantity(15);
+        CartItemDto expected = new CartItemDto(3L, book.getId(), book.getTitle(),
+                updateQuantityRequestDto.getQuantity());
 
-        CartItemDto expected = new CartItemDto();
-        expected.setId(cartItem.getId());
-        expected.setBookId(cartItem.getBook().getId());
-        expected.setBookTitle(cartItem.getBook().getTitle());
-        expected.setQuantity(updateQuantityRequestDto.getQuantity());
-
-        Mockito.when(cartRepository.findByUserId(user.getId()))
-                .thenReturn(Optional.of(shoppingCart));
-        Mockito.when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
-        Mockito.when(cartItemMapper.toDto(cartItem)).thenReturn(expected);
+        Mockito.when(cartRepository.changeItemQuantityInTotals(expected.getId(), user.getId(),
+                updateQuantityRequestDto.getQuantity())).thenReturn(1);
+        Mockito.when(cartItemRepository.findDtoByIdAndUserId(expected.getId(), user.getId()))
+                .thenReturn(Optional.of(expected));
 
         CartItemDto actual = shoppingCartService.updateCartItem(
                 user.getId(),
-                cartItem.getId(),
+                expected.getId(),
                 updateQuantityRequestDto
         );
 
-        Assertions.assertEquals(expected.getId(), actual.getId());
-        Assertions.assertEquals(expected.getBookId(), actual.getBookId());
-        Assertions.assertEquals(expected.getQuantity(), actual.getQuantity());
-        Assertions.assertEquals(expected.getBookTitle(), actual.getBookTitle());
+        Assertions.assertEquals(expected, actual);
+        Mockito.verify(cartItemRepository).updateQuantity(expected.getId(), user.getId(),
+                updateQuantityRequestDto.getQuantity());
     }
 
     @Test
     @DisplayName("Update cart item. Throws an exception")
     public void updateCartItem_WrongItemId_ShouldThrowException() {
         User user = getUser(2L);
-        ShoppingCart shoppingCart = getShoppingCart(user);
-        shoppingCart.setCartItems(new HashSet<>());
         UpdateQuantityRequestDto quantityRequestDto = new UpdateQuantityRequestDto();
         quantityRequestDto.setQuantity(15);
 
+        Mockito.when(cartRepository.changeItemQuantityInTotals(2L, user.getId(), 15))
+                .thenReturn(0);
+
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> shoppingCartService.updateCartItem(user.getId(), 2L, quantityRequestDto));
+        Mockito.verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    @DisplayName("Delete a cart item of another user. Throws an exception")
+    public void deleteOrder_ItemOfAnotherUser_ShouldThrowException() {
+        Mockito.when(cartRepository.removeItemFromTotals(3L, 2L)).thenReturn(0);
+
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> shoppingCartService.deleteOrder(2L, 3L));
+    }
+
+    @Test
+    @DisplayName("Apply a batch of cart operations")
+    public void applyBatch_MixedOperations_ShouldWriteMergedChangesAndReportErrors() {
+        User user = getUser(1L);
+        ShoppingCart shoppingCart = getShoppingCart(user);
+        CartResponseDto expected = getCartResponseDto(shoppingCart);
+        List<CartOperationDto> operations = List.of(
+                getOperation(CartOperationDto.Type.ADD, 1L, null, 2),
+                getOperation(CartOperationDto.Type.ADD, 1L, null, 3),
+                getOperation(CartOperationDto.Type.UPDATE, null, 10L, 7),
+                getOperation(CartOperationDto.Type.REMOVE, null, 10L, 0),
+                getOperation(CartOperationDto.Type.ADD, 9L, null, 1),
+                getOperation(CartOperationDto.Type.UPDATE, null, 10L, 4));
+
+        Mockito.when(cartRepository.findIdByUserIdForUpdate(user.getId()))
+                .thenReturn(Optional.of(shoppingCart.getId()));
+        Mockito.when(cartItemBatchRepository.findItemIds(List.of(shoppingCart.getId())))
+                .thenReturn(Map.of(shoppingCart.getId(), Map.of(5L, 10L)));
+        Mockito.when(cartItemBatchRepository.findLiveBookIds(Set.of(1L, 9L)))
+                .thenReturn(Set.of(1L));
         Mockito.when(cartRepository.findByUserId(user.getId()))
                 .thenReturn(Optional.of(shoppingCart));
+        Mockito.when(cartMapper.toDto(shoppingCart)).thenReturn(expected);
 
-        Assertions.assertThrows(RuntimeException.class,
-                () -> shoppingCartService.updateCartItem(user.getId(), 2L, quantityRequestDto));
+        final CartBatchResponseDto actual = shoppingCartService.applyBatch(user.getId(),
+                operations);
+
+        ArgumentCaptor<Collection<CartMutation>> mutations = ArgumentCaptor.forClass(
+                Collection.class);
+        Mockito.verify(cartItemBatchRepository)
+                .writeAll(mutations.capture(), Mockito.anyInt());
+        Assertions.assertEquals(List.of(CartMutation.add(1L, 1L, 5),
+                CartMutation.remove(1L, 5L)), new ArrayList<>(mutations.getValue()));
+        Mockito.verify(cartRepository).recalculateTotals(List.of(shoppingCart.getId()));
+        Assertions.assertEquals(expected, actual.getCart());
+        Assertions.assertEquals(List.of(4, 5), actual.getErrors().stream()
+                .map(CartOperationErrorDto::index)
+                .toList());
+    }
+
+    private CartOperationDto getOperation(CartOperationDto.Type type, Long bookId,
+                                          Long cartItemId, int quantity) {
+        CartOperationDto operation = new CartOperationDto();
+        operation.setType(type);
+        operation.setBookId(bookId);
+        operation.setCartItemId(cartItemId);
+        operation.setQuantity(quantity);
+        return operation;
     }
 
     private User getUser(Long userId) {
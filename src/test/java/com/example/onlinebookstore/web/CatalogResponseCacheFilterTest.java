@@ -0,0 +1,69 @@
+package com.example.onlinebookstore.web;
+
+import com.example.onlinebookstore.config.CacheConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class CatalogResponseCacheFilterTest {
+    private static final String ETAG = "\"v1\"";
+    private final CatalogResponseCacheFilter filter = new CatalogResponseCacheFilter(
+            new ConcurrentMapCacheManager(CacheConfig.RESPONSES_CACHE));
+    private final AtomicInteger handlerCalls = new AtomicInteger();
+    private final FilterChain handler = (request, response) -> {
+        handlerCalls.incrementAndGet();
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        if (!((MockHttpServletRequest) request).isUserInRole("USER")) {
+            httpResponse.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        httpResponse.setHeader(HttpHeaders.ETAG, ETAG);
+        httpResponse.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+    };
+
+    @AfterEach
+    private void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Don't serve cached catalog pages to principals without the USER authority")
+    public void doFilter_WarmCacheWithoutUserAuthority_ShouldReachHandler() throws Exception {
+        Assertions.assertEquals(HttpStatus.OK.value(), get("USER", null).getStatus());
+        Assertions.assertEquals(HttpStatus.OK.value(), get("USER", null).getStatus());
+        Assertions.assertEquals(1, handlerCalls.get());
+
+        Assertions.assertEquals(HttpStatus.FORBIDDEN.value(), get("GUEST", null).getStatus());
+        Assertions.assertEquals(HttpStatus.FORBIDDEN.value(), get("GUEST", ETAG).getStatus());
+        Assertions.assertEquals(3, handlerCalls.get());
+    }
+
+    private MockHttpServletResponse get(String authority, String entityTag) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("reader", null, authority));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        if ("USER".equals(authority)) {
+            request.addUserRole("USER");
+        }
+        if (entityTag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, entityTag);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, handler);
+        return response;
+    }
+}
@@ -0,0 +1,31 @@
+set session cte_max_recursion_depth = 10000;
+insert into users (id, email, password, first_name, last_name, is_deleted)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 3000)
+select n, concat('user', n, '@plan.com'), 'password', 'First', 'Last', n % 10 = 0 from seq;
+insert into users_roles (user_id, role_id)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 3000)
+select n, 1 from seq;
+insert into categories (id, name, is_deleted)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 1050)
+select n, concat('Category ', n), n % 10 = 0 from seq;
+insert into books (id, title, isbn, price, is_deleted)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 5000)
+select n, concat('Book ', n), concat('plan-', n), 10, n % 10 = 0 from seq;
+insert into books_categories (book_id, category_id)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 5000)
+select n, 1001 + n % 50 from seq;
+insert into shopping_carts (id, user_id, is_deleted)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 3000)
+select n, n, n % 10 = 0 from seq;
+insert into cart_items (shopping_cart_id, book_id, quantity, is_deleted)
+with recursive seq (n) as (select 1 union all select n + 1 from seq where n < 6000)
+select 1001 + n % 2000, 1001 + (n + n div 2000) % 4000, 1, n % 10 = 0 from seq;
+insert into orders (id, user_id, status, order_date, shipping_address, is_deleted)
+with recursive seq (n) as (select 1001 union all select n + 1 from seq where n < 5000)
+select n, 1001 + n % 2000, if(n % 50 = 0, 'PENDING', 'DELIVERED'), now(), 'Address',
+       n % 10 = 0 from seq;
+insert into order_items (order_id, book_id, quantity, price, is_deleted)
+with recursive seq (n) as (select 1 union all select n + 1 from seq where n < 8000)
+select 1001 + n % 4000, 1001 + n % 4000, 1, 10, n % 10 = 0 from seq;
+analyze table users, users_roles, categories, books, books_categories, shopping_carts,
+    cart_items, orders, order_items;
@@ -0,0 +1,9 @@
+delete from order_items where order_id between 1001 and 5000;
+delete from orders where id between 1001 and 5000;
+delete from cart_items where shopping_cart_id between 1001 and 3000;
+delete from shopping_carts where id between 1001 and 3000;
+delete from books_categories where book_id between 1001 and 5000;
+delete from books where id between 1001 and 5000;
+delete from categories where id between 1001 and 1050;
+delete from users_roles where user_id between 1001 and 3000;
+delete from users where id between 1001 and 3000;